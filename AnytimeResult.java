@@ -0,0 +1,49 @@
+package pathfinder.informed;
+
+/**
+ * Solution published by an {@link AnytimeSearch}: a SolveResult whose path is
+ * within a known factor of the cheapest.
+ */
+public class AnytimeResult extends SolveResult {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public final double weight, bound;
+
+    /**
+     * Constructs a new AnytimeResult.
+     *
+     * @param path The path found, partial if limit is not null, or null if there is
+     * none
+     * @param cost The cost of the path, or -1 if there is none
+     * @param stats The search's measurements
+     * @param limit The limit that stopped the search before it found any path, or
+     * null
+     * @param weight The heuristic weight of the iteration that found the path
+     * @param bound The factor by which the path's cost may exceed the cheapest
+     * solution's, 1 for an optimal path, or infinity if unknown
+     */
+    AnytimeResult (MazePath path, int cost, SearchStats stats, SolveOptions.Limit limit, double weight,
+            double bound) {
+        super(path, cost, stats, limit);
+        this.weight = weight;
+        this.bound = bound;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return Whether or not the path is known to be a cheapest solution
+     */
+    public boolean isOptimal () {
+        return isSolved() && bound <= 1;
+    }
+
+    @Override
+    public String toString () {
+        return super.toString() + String.format(" (weight %.2f, bound %.3f)", weight, bound);
+    }
+
+}
@@ -0,0 +1,339 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Anytime Repairing A* (ARA*) for MazeQueries: a weighted A* that quickly finds a
+ * path within a factor of the cheapest, then repeatedly lowers the weight of its
+ * heuristic and repairs that search, rather than starting over, until the path is
+ * optimal or a limit of its {@link SolveOptions} stops it.
+ * <p>
+ * Each iteration orders its frontier by g + w * h for its weight w. Cells whose
+ * cost falls after they were expanded are set aside as inconsistent instead of
+ * being expanded again in the same iteration; the next iteration queues them with
+ * the rest of the frontier under the new weight, and keeps every cost found so
+ * far. After each iteration the search publishes its path with a bound on its
+ * suboptimality: the path's cost over the smallest g + h among the cells still
+ * queued or set aside, which no solution can cost less than.
+ * <p>
+ * Both legs of the query are searched side by side, each at the current weight,
+ * the key-to-goal leg in the context's companion table, so every published path
+ * runs from the initial cell through the key to a goal.
+ */
+public class AnytimeSearch {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final double DEFAULT_WEIGHT = 3.0, DEFAULT_STEP = 0.5;
+    private final double initialWeight, step;
+
+    /**
+     * Constructs a new AnytimeSearch that starts at the default weight and lowers
+     * it by the default step.
+     */
+    public AnytimeSearch () {
+        this(DEFAULT_WEIGHT, DEFAULT_STEP);
+    }
+
+    /**
+     * Constructs a new AnytimeSearch.
+     *
+     * @param initialWeight The heuristic weight of the first iteration, at least 1
+     * @param step The amount by which each iteration lowers the weight, down to 1
+     * @throws IllegalArgumentException If the weight is less than 1 or the step is
+     * not positive
+     */
+    public AnytimeSearch (double initialWeight, double step) {
+        if (!(initialWeight >= 1) || !(step > 0)) {
+            throw new IllegalArgumentException("Weight must be at least 1 and step positive");
+        }
+        this.initialWeight = initialWeight;
+        this.step = step;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Solves the given query, publishing each path it finds as it goes.
+     *
+     * @param problem A MazeProblem that specifies the maze, actions, transitions
+     * @param query The MazeQuery to solve within the problem's maze
+     * @param context A SearchContext with room for the problem's grid
+     * @param options The SolveOptions that limit the whole search
+     * @param published Receives each path found, with cost and bound no larger
+     * than the one before, or null
+     * @return The last path found, optimal unless a limit stopped the search; a
+     * partial result if a limit stopped it before any path was found; or an
+     * unsolved result if there is no solution
+     * @throws IllegalArgumentException If the context is too small for the maze, or
+     * a cell of the query lies outside of the maze or on a wall
+     */
+    public AnytimeResult solve (MazeProblem problem, MazeQuery query, SearchContext context, SolveOptions options,
+            Consumer<AnytimeResult> published) {
+        if (context.capacity() < problem.getGrid().size()) {
+            throw new IllegalArgumentException("SearchContext too small for maze");
+        }
+        if (query.key < 0 || (query.goal == MazeQuery.ANY_GOAL && problem.getGoalCount() == 0)) {
+            return new AnytimeResult(null, -1, null, null, initialWeight, Double.POSITIVE_INFINITY);
+        }
+        Pathfinder.checkCell(problem, query.initial);
+        Pathfinder.checkCell(problem, query.key);
+        if (query.goal != MazeQuery.ANY_GOAL) {
+            Pathfinder.checkCell(problem, query.goal);
+        }
+
+        Heuristic heuristic = (options.heuristic != null) ? options.heuristic : problem.getHeuristic();
+        Leg keyLeg = new Leg(problem, context, heuristic, query.initial, query.key);
+        Leg goalLeg = new Leg(problem, context.backward(), heuristic, query.key, query.goal);
+        context.limit(options);
+        try {
+            AnytimeResult best = null;
+            for (double weight = initialWeight;; weight = Math.max(1, weight - step)) {
+                if (!keyLeg.improve(context, weight) || (keyLeg.goal != null && !goalLeg.improve(context, weight))) {
+                    return (best != null) ? finish(best, keyLeg, goalLeg, context)
+                        : partial(problem, keyLeg, goalLeg, context.stopped, weight);
+                }
+                if (keyLeg.goal == null || goalLeg.goal == null) {
+                    return finish(new AnytimeResult(null, -1, null, null, weight, Double.POSITIVE_INFINITY),
+                        keyLeg, goalLeg, context);
+                }
+                // An iteration's path may cost more than an earlier one, whose
+                // bound then tightens by the new lower bound instead
+                MazeGrid grid = problem.getGrid();
+                int cost = cost(problem, keyLeg.goal) + cost(problem, goalLeg.goal);
+                MazePath path = (best == null || cost < best.cost)
+                    ? keyLeg.goal.getPath(grid).append(goalLeg.goal.getPath(grid)) : best.path;
+                cost = (best == null) ? cost : Math.min(cost, best.cost);
+                int lowerBound = keyLeg.lowerBound() + goalLeg.lowerBound();
+                double bound = (lowerBound == 0) ? 1 : (double) cost / lowerBound;
+                best = new AnytimeResult(path, cost, stats(keyLeg, goalLeg), null, weight,
+                    (best == null) ? bound : Math.min(bound, best.bound));
+                if (published != null) {
+                    published.accept(best);
+                }
+                if (best.bound <= 1 || weight == 1) {
+                    return finish(best, keyLeg, goalLeg, context);
+                }
+            }
+        } finally {
+            context.limit(SolveOptions.NONE);
+        }
+    }
+
+    /**
+     * @return The given result with the measurements of the whole search, after
+     * telling the context's listener, if any, that both legs are finished
+     */
+    private static AnytimeResult finish (AnytimeResult result, Leg keyLeg, Leg goalLeg, SearchContext context) {
+        SearchStats stats = stats(keyLeg, goalLeg);
+        if (context.getListener() != null) {
+            context.getListener().legFinished(stats.keyLeg);
+            context.getListener().legFinished(stats.goalLeg);
+        }
+        return new AnytimeResult(result.path, result.cost, stats, result.limit, result.weight, result.bound);
+    }
+
+    /**
+     * @return The partial result of a search stopped before it found a path: the
+     * finished key leg, if any, then the path to the stopped leg's expanded cell
+     * that the heuristic estimated closest to its target
+     */
+    private static AnytimeResult partial (MazeProblem problem, Leg keyLeg, Leg goalLeg, SolveOptions.Limit limit,
+            double weight) {
+        MazeGrid grid = problem.getGrid();
+        MazePath path = new MazePath(new byte[0]);
+        int cost = 0;
+        Leg stopped = keyLeg;
+        if (keyLeg.goal != null) {
+            path = keyLeg.goal.getPath(grid);
+            cost = cost(problem, keyLeg.goal);
+            stopped = goalLeg;
+        }
+        if (stopped.closest != null) {
+            path = path.append(stopped.closest.getPath(grid));
+            cost += cost(problem, stopped.closest);
+        }
+        return new AnytimeResult(path, cost, stats(keyLeg, goalLeg), limit, weight, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * @return The cost of the path to the given node, which may be less than its
+     * g: a node rerouted onto a cheaper path only passes the saving on to its
+     * descendants when it is next expanded
+     */
+    private static int cost (MazeProblem problem, SearchTreeNode node) {
+        int cost = 0;
+        for (SearchTreeNode p = node; p.parent != null; p = p.parent) {
+            cost += problem.getCost(p.cell);
+        }
+        return cost;
+    }
+
+    private static SearchStats stats (Leg keyLeg, Leg goalLeg) {
+        return new SearchStats(keyLeg.stats(), goalLeg.stats());
+    }
+
+    /**
+     * The ARA* state of one leg, kept from one iteration to the next: the node
+     * table and closed set of its SearchContext, its own frontier, and the cells
+     * set aside as inconsistent.
+     */
+    private static class Leg {
+
+        private final MazeProblem problem;
+        private final SearchContext table;
+        private final Heuristic heuristic;
+        private final IndexedHeap open;
+        private final int start, target;
+        private final int[] cells = new int[4];
+        private final byte[] actions = new byte[4];
+        private int[] inconsistent = new int[64];
+        private int inconsistentCount;
+        private double weight = Double.NaN;
+        private long expansions, pushes, reopens, nanos;
+        private int frontierPeak;
+        SearchTreeNode goal, closest;
+
+        Leg (MazeProblem problem, SearchContext table, Heuristic heuristic, int start, int target) {
+            this.problem = problem;
+            this.table = table;
+            this.heuristic = heuristic;
+            this.open = new IndexedHeap(problem.getGrid().size());
+            this.start = start;
+            this.target = target;
+            table.reset();
+            int h = heuristic.estimate(start, target);
+            if (h != Heuristic.UNREACHABLE) {
+                SearchTreeNode root = new SearchTreeNode(start, (byte) -1, null, 0, h);
+                table.putNode(root);
+                closest = root;
+                goal = isTarget(start) ? root : null;
+                open.push(start, 0);
+                pushes++;
+            }
+        }
+
+        /**
+         * Runs one ARA* iteration at the given weight: requeues the cells left by
+         * the last one under the new weight, then expands cells until none queued
+         * could lead to a cheaper path to the target than the weight allows.
+         *
+         * @return false if a limit of the solve stopped the iteration, else true
+         */
+        boolean improve (SearchContext context, double weight) {
+            long begin = System.nanoTime();
+            try {
+                if (weight != this.weight) {
+                    requeue(weight);
+                }
+                while (!open.isEmpty()) {
+                    if (goal != null && goal.g <= open.peekKey()) {
+                        break;
+                    }
+                    int cell = open.pop();
+                    SearchTreeNode node = table.getNode(cell);
+                    if (context.expand(cell, node.g)) {
+                        return false;
+                    }
+                    expansions++;
+                    table.graveyard.add(cell);
+                    int h = node.f - node.g;
+                    if (h < closest.f - closest.g || (h == closest.f - closest.g && node.g < closest.g)) {
+                        closest = node;
+                    }
+                    expand(node);
+                    frontierPeak = Math.max(frontierPeak, open.size());
+                }
+                return true;
+            } finally {
+                nanos += System.nanoTime() - begin;
+            }
+        }
+
+        private void expand (SearchTreeNode node) {
+            int count = problem.getTransitions(node.cell, cells, actions);
+            for (int i = 0; i < count; i++) {
+                int cell = cells[i], g = node.g + problem.getCost(cell);
+                SearchTreeNode next = table.getNode(cell);
+                if (next == null) {
+                    int h = heuristic.estimate(cell, target);
+                    if (h == Heuristic.UNREACHABLE) {
+                        continue;
+                    }
+                    next = new SearchTreeNode(cell, actions[i], node, g, h);
+                    table.putNode(next);
+                    pushes++;
+                } else if (next.reroute(actions[i], node, g)) {
+                    reopens++;
+                } else {
+                    continue;
+                }
+                if (isTarget(cell) && (goal == null || next.g < goal.g)) {
+                    goal = next;
+                }
+                if (table.graveyard.contains(cell)) {
+                    // Already expanded this iteration: wait for the next
+                    if (inconsistentCount == inconsistent.length) {
+                        inconsistent = Arrays.copyOf(inconsistent, inconsistentCount * 2);
+                    }
+                    inconsistent[inconsistentCount++] = cell;
+                } else {
+                    open.push(cell, key(next));
+                }
+            }
+        }
+
+        /**
+         * Queues the frontier and the inconsistent cells under the given weight,
+         * and opens every cell to expansion again.
+         */
+        private void requeue (double weight) {
+            this.weight = weight;
+            int[] queued = open.cells();
+            open.clear();
+            for (int cell : queued) {
+                open.push(cell, key(table.getNode(cell)));
+            }
+            for (int i = 0; i < inconsistentCount; i++) {
+                open.push(inconsistent[i], key(table.getNode(inconsistent[i])));
+            }
+            inconsistentCount = 0;
+            table.graveyard.clear();
+        }
+
+        /**
+         * @return The node's priority, g plus the weighted heuristic, rounded down
+         */
+        private int key (SearchTreeNode node) {
+            return node.g + (int) (weight * (node.f - node.g));
+        }
+
+        /**
+         * @return A lower bound on the cost of the leg's cheapest path: the
+         * smallest g + h of the cells queued or set aside, or the goal's cost if
+         * none is smaller
+         */
+        int lowerBound () {
+            int bound = goal.g;
+            for (int cell : open.cells()) {
+                bound = Math.min(bound, table.getNode(cell).f);
+            }
+            for (int i = 0; i < inconsistentCount; i++) {
+                bound = Math.min(bound, table.getNode(inconsistent[i]).f);
+            }
+            return bound;
+        }
+
+        private boolean isTarget (int cell) {
+            return (target == MazeQuery.ANY_GOAL) ? problem.isGoal(cell) : cell == target;
+        }
+
+        SearchStats.Leg stats () {
+            return new SearchStats.Leg(start, target, expansions, pushes, reopens, frontierPeak, nanos);
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Asynchronous facade for solving MazeQueries against one shared MazeProblem. Each
+ * query runs as its own task, on a virtual thread when the JVM supports them, and
+ * borrows its scratch state from a bounded ContextPool; tasks that find the pool
+ * exhausted park until a context is released. Callers are held back as well: once
+ * the given number of queries are in flight, {@link #solve} blocks until one of
+ * them completes.
+ */
+public class AsyncSolver implements AutoCloseable {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final MazeProblem problem;
+    private final ContextPool contexts;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Semaphore inFlight;
+
+    /**
+     * Constructs a new AsyncSolver that runs each query on a new virtual thread, or
+     * on a cached pool of daemon threads on JVMs without virtual threads.
+     *
+     * @param problem The MazeProblem every query is solved against
+     * @param contexts The largest number of SearchContexts to allocate
+     * @param maxInFlight The largest number of queries submitted but not completed
+     */
+    public AsyncSolver (MazeProblem problem, int contexts, int maxInFlight) {
+        this(problem, newTaskExecutor(), true, new ContextPool(problem.getGrid().size(), contexts), maxInFlight);
+    }
+
+    /**
+     * Constructs a new AsyncSolver that runs its queries on the given executor,
+     * which it does not shut down when closed.
+     *
+     * @param problem The MazeProblem every query is solved against
+     * @param executor The ExecutorService that runs the queries
+     * @param contexts The largest number of SearchContexts to allocate
+     * @param maxInFlight The largest number of queries submitted but not completed
+     */
+    public AsyncSolver (MazeProblem problem, ExecutorService executor, int contexts, int maxInFlight) {
+        this(problem, executor, false, new ContextPool(problem.getGrid().size(), contexts), maxInFlight);
+    }
+
+    /**
+     * Constructs a new AsyncSolver that runs its queries on the given executor with
+     * contexts borrowed from the given pool, which other solvers of the same maze
+     * may share. It does not shut down the executor when closed.
+     *
+     * @param problem The MazeProblem every query is solved against
+     * @param executor The ExecutorService that runs the queries
+     * @param contexts The ContextPool sized for the problem's maze
+     * @param maxInFlight The largest number of queries submitted but not completed
+     */
+    public AsyncSolver (MazeProblem problem, ExecutorService executor, ContextPool contexts, int maxInFlight) {
+        this(problem, executor, false, contexts, maxInFlight);
+    }
+
+    private AsyncSolver (MazeProblem problem, ExecutorService executor, boolean ownsExecutor,
+            ContextPool contexts, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("In-flight limit must be positive");
+        }
+        this.problem = problem;
+        this.contexts = contexts;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Submits the given query, first waiting for room if the in-flight limit has
+     * been reached.
+     *
+     * @param query The MazeQuery to solve
+     * @return A future completed with the query's SolveResult, or exceptionally
+     * if the query is invalid for the maze
+     * @throws InterruptedException If the caller is interrupted while waiting
+     */
+    public CompletableFuture<SolveResult> solve (MazeQuery query) throws InterruptedException {
+        return solve(query, SolveOptions.NONE);
+    }
+
+    /**
+     * Submits the given query as {@link #solve(MazeQuery)} does, limited by the
+     * given options; a limited query completes with a partial result when it stops.
+     *
+     * @param query The MazeQuery to solve
+     * @param options The SolveOptions that limit the solve, whose timeout starts
+     * once the query runs
+     * @return A future completed with the query's SolveResult, or exceptionally
+     * if the query is invalid for the maze
+     * @throws InterruptedException If the caller is interrupted while waiting
+     */
+    public CompletableFuture<SolveResult> solve (MazeQuery query, SolveOptions options)
+            throws InterruptedException {
+        inFlight.acquire();
+        try {
+            return CompletableFuture.supplyAsync(() -> run(query, options), executor)
+                .whenComplete((result, error) -> inFlight.release());
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Submits every one of the given queries, subject to the same in-flight limit as
+     * {@link #solve(MazeQuery)}.
+     *
+     * @param queries The MazeQueries to solve
+     * @return A future completed with the SolveResult of each query, in order
+     * @throws InterruptedException If the caller is interrupted while waiting
+     */
+    public CompletableFuture<List<SolveResult>> solveAll (List<MazeQuery> queries) throws InterruptedException {
+        List<CompletableFuture<SolveResult>> futures = new ArrayList<>(queries.size());
+        for (MazeQuery query : queries) {
+            futures.add(solve(query));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                List<SolveResult> results = new ArrayList<>(futures.size());
+                for (CompletableFuture<SolveResult> future : futures) {
+                    results.add(future.join());
+                }
+                return results;
+            });
+    }
+
+    /**
+     * Shuts down the executor if this solver created it.
+     */
+    @Override
+    public void close () {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Solves one query with a context borrowed from the pool.
+     */
+    private SolveResult run (MazeQuery query, SolveOptions options) {
+        SearchContext context;
+        try {
+            context = contexts.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        try {
+            return Pathfinder.solve(problem, query, context, options);
+        } finally {
+            contexts.release(context);
+        }
+    }
+
+    /**
+     * @return A virtual-thread-per-task executor on JVMs that have one, found
+     * reflectively so that this class still compiles for older releases, or else a
+     * cached pool of daemon threads
+     */
+    private static ExecutorService newTaskExecutor () {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "maze-solver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+}
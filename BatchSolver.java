@@ -0,0 +1,92 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves many MazeQueries against one shared MazeProblem. The maze is parsed once,
+ * the queries are spread over a fixed number of workers on the given Executor, and
+ * each worker reuses a single SearchContext for every query it takes, so a batch
+ * allocates one set of grid-sized scratch buffers per worker rather than per query.
+ */
+public class BatchSolver {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final MazeProblem problem;
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Constructs a new BatchSolver that runs on the common ForkJoinPool with one
+     * worker per available processor.
+     *
+     * @param problem The MazeProblem every query is solved against
+     */
+    public BatchSolver (MazeProblem problem) {
+        this(problem, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new BatchSolver.
+     *
+     * @param problem The MazeProblem every query is solved against
+     * @param executor The Executor that runs the workers
+     * @param parallelism The largest number of workers, and so SearchContexts, used
+     * by one batch
+     */
+    public BatchSolver (MazeProblem problem, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.problem = problem;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Solves every one of the given queries, blocking until all are done.
+     *
+     * @param queries The MazeQueries to solve
+     * @return The SolveResult of each query, in the same order as the queries
+     * @throws IllegalArgumentException If any query has a cell that is outside of
+     * the maze or on a wall
+     */
+    public List<SolveResult> solve (List<MazeQuery> queries) {
+        MazeQuery[] batch = queries.toArray(new MazeQuery[0]);
+        SolveResult[] results = new SolveResult[batch.length];
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(parallelism, batch.length);
+
+        // Each worker claims the next unsolved query until none are left
+        CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            running[w] = CompletableFuture.runAsync(() -> {
+                SearchContext context = new SearchContext(problem);
+                for (int i = next.getAndIncrement(); i < batch.length; i = next.getAndIncrement()) {
+                    results[i] = Pathfinder.solve(problem, batch[i], context);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(running).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+}
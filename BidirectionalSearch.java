@@ -0,0 +1,192 @@
+package pathfinder.informed;
+
+/**
+ * Two-leg solver whose key-to-goal leg is a bidirectional A* search: forward from
+ * the key toward the nearest goal, and backward from every goal at once toward the
+ * key. The initial-to-key leg is the ordinary one-directional search of
+ * {@link Pathfinder}.
+ * <p>
+ * Costs are paid on entering a tile, so a backward step from a cell to its
+ * neighbor costs what the forward step into the cell would: the backward g-value
+ * of a cell is exactly the cost of its cheapest path to a goal. The two sides are
+ * ordered by balanced potentials, half the difference of the forward and backward
+ * Manhattan estimates, added to forward and subtracted from backward path costs.
+ * Under them both sides are consistent and the keys of any cell sum to the cost
+ * of the cheapest path through it found so far, so the search may stop as soon as
+ * the smallest forward and backward keys sum to no less than the cheapest path
+ * found between the two sides.
+ * <p>
+ * Forward keys can exceed the last one popped by up to 8, so a context built
+ * around a BucketQueue needs a span of at least 9.
+ */
+public class BidirectionalSearch {
+
+    private BidirectionalSearch () {}
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Solves the given MazeProblem with a bidirectional key-to-goal leg.
+     *
+     * @param problem A MazeProblem that specifies the maze, actions, transitions
+     * @return A MazePath that leads from the initial to a goal state, or null if
+     * there is no solution
+     */
+    public static MazePath findPath (MazeProblem problem) {
+        return solve(problem, MazeQuery.of(problem), new SearchContext(problem)).path;
+    }
+
+    /**
+     * Finds the cheapest path for the given query like
+     * {@link Pathfinder#solve(MazeProblem, MazeQuery, SearchContext)}, but searching
+     * for the goal from both ends. The backward half of the search runs in a
+     * second context that the given one creates and keeps on first use, and its
+     * expansions are counted in the given context's.
+     *
+     * @param problem A MazeProblem that specifies the maze, actions, transitions
+     * @param query The MazeQuery to solve within the problem's maze
+     * @param context A SearchContext with room for the problem's grid
+     * @return A SolveResult with the path and its cost, or an unsolved result if
+     * there is no solution
+     * @throws IllegalArgumentException If the context is too small for the maze, or
+     * a cell of the query lies outside of the maze or on a wall
+     */
+    public static SolveResult solve (MazeProblem problem, MazeQuery query, SearchContext context) {
+        return Pathfinder.solve(problem, query, context, SolveOptions.NONE, Pathfinder::search, BidirectionalSearch::search);
+    }
+
+    /**
+     * Runs one leg as a bidirectional search from start to target, or to the
+     * nearest goal for MazeQuery.ANY_GOAL.
+     *
+     * @return A SearchTreeNode at the target, at the end of a chain of nodes that
+     * follows the cheapest path from start, or null if the target is unreachable
+     */
+    static SearchTreeNode search (MazeProblem problem, SearchContext context, int start, int target) {
+        SearchContext forward = context, backward = context.backward();
+        Heuristic heuristic = context.heuristic(problem);
+        forward.reset();
+        backward.reset();
+
+        // The backward search starts from every target cell at once
+        if (target == MazeQuery.ANY_GOAL) {
+            for (int cell : problem.getGoalCells()) {
+                add(backward, cell, (byte) -1, null, 0, -potential(heuristic, problem, cell, start, target));
+                context.pushes++;
+            }
+        } else {
+            add(backward, target, (byte) -1, null, 0, -potential(heuristic, problem, target, start, target));
+            context.pushes++;
+        }
+        if (heuristic.estimate(start, target) == Heuristic.UNREACHABLE) {
+            return null;
+        }
+        add(forward, start, (byte) -1, null, 0, potential(heuristic, problem, start, start, target));
+        context.pushes++;
+
+        if (backward.getNode(start) != null) {
+            return forward.getNode(start);
+        }
+
+        int best = Integer.MAX_VALUE, meeting = -1;
+        int[] cells = context.cells;
+        byte[] actions = context.actions;
+        long lastForward = Long.MIN_VALUE / 2, lastBackward = Long.MIN_VALUE / 2;
+        while (!forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+            // Expand the side with the smaller last key, so both sides' keys rise together
+            boolean isForward = lastForward <= lastBackward;
+            SearchContext side = isForward ? forward : backward, other = isForward ? backward : forward;
+            SearchTreeNode current = side.getNode(side.frontier.pop());
+            long key = current.f + current.g;
+            // The other side's keys only grow, so its last one bounds its smallest
+            if (key + (isForward ? lastBackward : lastForward) >= 2L * best) {
+                break;
+            }
+            if (isForward) {
+                lastForward = key;
+            } else {
+                lastBackward = key;
+            }
+            // Only forward nodes lie at the end of a path from start
+            if (isForward ? context.expand(current) : context.expand(current.cell, current.g)) {
+                return null;
+            }
+            side.graveyard.add(current.cell);
+
+            // Backward, leaving a cell costs what entering it does going forward
+            int step = isForward ? 0 : problem.getCost(current.cell);
+            int count = problem.getTransitions(current.cell, cells, actions);
+            for (int i = 0; i < count; i++) {
+                int cell = cells[i];
+                if (side.graveyard.contains(cell)) {
+                    continue;
+                }
+                int g = current.g + (isForward ? problem.getCost(cell) : step);
+                // Backward nodes record the forward move toward their parent
+                byte action = isForward ? actions[i] : (byte) (actions[i] ^ 1);
+                SearchTreeNode node = side.getNode(cell);
+                if (node == null) {
+                    // Cells that cannot reach the target are never queued forward;
+                    // every cell reached backward can
+                    if (isForward && heuristic.estimate(cell, target) == Heuristic.UNREACHABLE) {
+                        continue;
+                    }
+                    int potential = potential(heuristic, problem, cell, start, target);
+                    node = add(side, cell, action, current, g, isForward ? potential : -potential);
+                    context.pushes++;
+                } else if (node.reroute(action, current, g)) {
+                    side.frontier.push(cell, node.f + node.g);
+                    context.reopens++;
+                } else {
+                    continue;
+                }
+
+                SearchTreeNode opposite = other.getNode(cell);
+                if (opposite != null && g + opposite.g < best) {
+                    best = g + opposite.g;
+                    meeting = cell;
+                }
+            }
+            context.sampleFrontier(forward.frontier.size() + backward.frontier.size());
+        }
+        return (meeting < 0) ? null : join(problem, forward.getNode(meeting), backward.getNode(meeting));
+    }
+
+    /**
+     * @return Twice the balanced potential of the cell: the forward heuristic's
+     * estimate to the target less the backward heuristic's estimate to start.
+     * Forward keys add it to twice the path cost and backward keys subtract it,
+     * which keeps both sides' keys consistent and lets the two be summed
+     */
+    private static int potential (Heuristic heuristic, MazeProblem problem, int cell, int start, int target) {
+        return heuristic.estimate(cell, target) - problem.manhattan(cell, start);
+    }
+
+    /**
+     * Stores and queues a new node in the given side of the search. The node's f
+     * holds its g plus the given signed potential, so its key is its f plus its g.
+     */
+    private static SearchTreeNode add (SearchContext side, int cell, byte action, SearchTreeNode parent,
+            int g, int potential) {
+        SearchTreeNode node = new SearchTreeNode(cell, action, parent, g, potential);
+        side.putNode(node);
+        side.frontier.push(cell, node.f + node.g);
+        return node;
+    }
+
+    /**
+     * Extends the forward tree's node at the meeting cell with a new node for each
+     * cell on the backward tree's path from the meeting cell to its target.
+     */
+    private static SearchTreeNode join (MazeProblem problem, SearchTreeNode forward, SearchTreeNode backward) {
+        SearchTreeNode node = forward;
+        for (SearchTreeNode b = backward; b.parent != null; b = b.parent) {
+            int cell = b.parent.cell;
+            node = new SearchTreeNode(cell, b.action, node, node.g + problem.getCost(cell), 0);
+        }
+        return node;
+    }
+
+}
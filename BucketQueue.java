@@ -0,0 +1,145 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Dial-style bucketed open list for small integer priorities. Tile costs are 1 or
+ * 3 and the Manhattan heuristic is consistent, so the f-values of queued cells
+ * never fall below the last one popped and never exceed it by more than a small
+ * constant. The queue therefore only needs a short ring of buckets, each holding
+ * an intrusive doubly-linked list of cells, giving O(1) push, decrease-key and
+ * amortized pop.
+ */
+public class BucketQueue implements Frontier {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final int DEFAULT_SPAN = 8;
+    private final int mask;
+    private final int[] heads;  // bucket -> first cell, or -1 if empty
+    private final int[] next, prev;
+    private final int[] keys;   // cell -> priority, valid while queued
+    private final boolean[] queued;
+    private int size, min, max;
+
+    /**
+     * Constructs a new, empty BucketQueue that accepts priorities up to
+     * DEFAULT_SPAN - 1 above the smallest queued one, enough for any consistent
+     * heuristic under the maze's 1 and 3 move costs.
+     *
+     * @param capacity The number of cells in the grid being searched
+     */
+    public BucketQueue (int capacity) {
+        this(capacity, DEFAULT_SPAN);
+    }
+
+    /**
+     * Constructs a new, empty BucketQueue.
+     *
+     * @param capacity The number of cells in the grid being searched
+     * @param span One more than the largest difference allowed between any two
+     * queued priorities; rounded up to a power of two
+     */
+    public BucketQueue (int capacity, int span) {
+        if (span < 1) {
+            throw new IllegalArgumentException("Bucket span must be positive");
+        }
+        int buckets = Integer.highestOneBit(span);
+        buckets = (buckets < span) ? buckets << 1 : buckets;
+        this.mask = buckets - 1;
+        this.heads = new int[buckets];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.keys = new int[capacity];
+        this.queued = new boolean[capacity];
+        Arrays.fill(heads, -1);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    @Override
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    @Override
+    public int size () {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException If the priority would spread the queued
+     * priorities across more than the ring of buckets
+     */
+    @Override
+    public void push (int cell, int key) {
+        if (size == 0) {
+            min = max = key;
+        } else if (Math.max(max, key) - Math.min(min, key) > mask) {
+            throw new IllegalStateException("Priority " + key + " outside of bucket window at " + min);
+        } else {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        if (queued[cell]) {
+            if (key >= keys[cell]) {
+                return;
+            }
+            unlink(cell);
+        } else {
+            queued[cell] = true;
+            size++;
+        }
+        keys[cell] = key;
+        int bucket = key & mask, head = heads[bucket];
+        next[cell] = head;
+        prev[cell] = -1;
+        if (head >= 0) {
+            prev[head] = cell;
+        }
+        heads[bucket] = cell;
+    }
+
+    @Override
+    public int pop () {
+        while (heads[min & mask] < 0) {
+            min++;
+        }
+        int cell = heads[min & mask];
+        unlink(cell);
+        queued[cell] = false;
+        size--;
+        return cell;
+    }
+
+    @Override
+    public void clear () {
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            for (int cell = heads[bucket]; cell >= 0; cell = next[cell]) {
+                queued[cell] = false;
+            }
+            heads[bucket] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Removes the given queued cell from its bucket's list.
+     */
+    private void unlink (int cell) {
+        int before = prev[cell], after = next[cell];
+        if (before >= 0) {
+            next[before] = after;
+        } else {
+            heads[keys[cell] & mask] = after;
+        }
+        if (after >= 0) {
+            prev[after] = before;
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package pathfinder.informed;
+
+/**
+ * Flag that cancels the solves whose {@link SolveOptions} hold it. Any thread may
+ * cancel a token; solves notice within a few hundred expansions and return their
+ * best partial path. A token stays cancelled once it has been.
+ */
+public class CancellationToken {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private volatile boolean cancelled;
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Cancels every solve that holds this token, now or later.
+     */
+    public void cancel () {
+        cancelled = true;
+    }
+
+    /**
+     * @return Whether or not this token has been cancelled
+     */
+    public boolean isCancelled () {
+        return cancelled;
+    }
+
+}
@@ -0,0 +1,68 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Set of expanded cells for the informed search, kept as a bitmap over cell
+ * indices. Each 64-cell word of the bitmap carries the generation in which it was
+ * last written, and words from older generations read as empty, so clearing the
+ * set between searches is O(1) instead of a pass over the whole grid.
+ */
+public class ClosedSet {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final long[] words;
+    private final int[] stamps;
+    private int generation = 1;
+
+    /**
+     * Constructs a new, empty ClosedSet.
+     *
+     * @param capacity The number of cells in the grid being searched
+     */
+    public ClosedSet (int capacity) {
+        int length = (capacity + 63) >>> 6;
+        this.words = new long[length];
+        this.stamps = new int[length];
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @param cell A cell index
+     * @return Whether or not the cell has been added since the last clear
+     */
+    public boolean contains (int cell) {
+        int word = cell >>> 6;
+        return stamps[word] == generation && (words[word] & (1L << cell)) != 0;
+    }
+
+    /**
+     * [Mutator] Adds the given cell to the set.
+     *
+     * @param cell A cell index
+     */
+    public void add (int cell) {
+        int word = cell >>> 6;
+        if (stamps[word] != generation) {
+            stamps[word] = generation;
+            words[word] = 0;
+        }
+        words[word] |= 1L << cell;
+    }
+
+    /**
+     * [Mutator] Empties the set by starting a new generation; the stamps only have
+     * to be reset once every 2^32 clears, when the generation wraps around.
+     */
+    public void clear () {
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package pathfinder.informed;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of SearchContexts sized for one maze. Contexts are only created as
+ * they are first needed, and never more than the pool's size, so any number of
+ * concurrent searches share a fixed amount of grid-sized scratch memory. Searches
+ * that find the pool exhausted wait for a context to be released.
+ */
+public class ContextPool {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final int capacity, size;
+    private final Semaphore available;
+    private final ConcurrentLinkedDeque<SearchContext> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * Constructs a new, empty ContextPool.
+     *
+     * @param capacity The number of cells of the maze the contexts will search
+     * @param size The largest number of contexts the pool will ever create
+     */
+    public ContextPool (int capacity, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.capacity = capacity;
+        this.size = size;
+        this.available = new Semaphore(size, true);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return The largest number of contexts the pool will ever create
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * @return The number of contexts the pool has created so far, at most its size
+     */
+    public int created () {
+        return created.get();
+    }
+
+    /**
+     * Takes a context from the pool, waiting for one to be released if all of them
+     * are in use.
+     *
+     * @return A SearchContext that must be given back with {@link #release}
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public SearchContext acquire () throws InterruptedException {
+        available.acquire();
+        return take();
+    }
+
+    /**
+     * Takes a context from the pool, waiting at most the given time for one to be
+     * released if all of them are in use.
+     *
+     * @param timeout The longest time to wait
+     * @param unit The unit of timeout
+     * @return A SearchContext that must be given back with {@link #release}, or
+     * null if none became available in time
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    public SearchContext tryAcquire (long timeout, TimeUnit unit) throws InterruptedException {
+        return available.tryAcquire(timeout, unit) ? take() : null;
+    }
+
+    /**
+     * Gives a context taken from this pool back to it.
+     *
+     * @param context A SearchContext from acquire or tryAcquire
+     */
+    public void release (SearchContext context) {
+        idle.push(context);
+        available.release();
+    }
+
+    /**
+     * @return The most recently released idle context, or a new one if none are idle
+     */
+    private SearchContext take () {
+        SearchContext context = idle.poll();
+        if (context != null) {
+            return context;
+        }
+        created.incrementAndGet();
+        return new SearchContext(capacity);
+    }
+
+}
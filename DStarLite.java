@@ -0,0 +1,202 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * One leg of an {@link IncrementalPlanner}: a D* Lite search that grows backward
+ * from its target, or from every goal for MazeQuery.ANY_GOAL, toward a start cell
+ * that may move. Each cell keeps g, its cost to the target as of its last
+ * expansion, and rhs, the cost through its best neighbor's g; cells where the two
+ * differ are queued, keyed by the smaller of them plus the Manhattan distance from
+ * the start. A tile change only requeues the changed cell and its neighbors, and a
+ * moved start only raises the key offset km, so each repair expands just the cells
+ * whose costs changed on the way to the start.
+ * <p>
+ * Moves pay for the tile they enter, so a cell's rhs is the smallest cost(v) + g(v)
+ * over its open neighbors v.
+ */
+class DStarLite {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final int INFINITE = Heuristic.UNREACHABLE;
+    private final MazeProblem problem;
+    private final int target;
+    private final int[] g, rhs;
+    private final IndexedHeap open;
+    private final int[] cells = new int[4], around = new int[4];
+    private final byte[] actions = new byte[4];
+    private int start = -1, km;
+    private boolean started;
+    long expansions;
+
+    /**
+     * Constructs a new leg that plans paths to the given target.
+     *
+     * @param problem The maze, whose tiles may change between searches
+     * @param target The target cell, or MazeQuery.ANY_GOAL
+     */
+    DStarLite (MazeProblem problem, int target) {
+        int size = problem.getGrid().size();
+        this.problem = problem;
+        this.target = target;
+        this.g = new int[size];
+        this.rhs = new int[size];
+        this.open = new IndexedHeap(size);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Repairs the search for the given start cell and follows it to the target.
+     *
+     * @param from The start cell
+     * @return A SearchTreeNode at the target, at the end of a chain of nodes that
+     * follows the cheapest path from start, or null if the target is unreachable
+     */
+    SearchTreeNode search (int from) {
+        if (!started) {
+            initialize(from);
+        } else if (from != start) {
+            // Keys already queued were computed from the old start; raising later
+            // keys by the distance moved keeps them comparable
+            km += problem.manhattan(start, from);
+            start = from;
+        }
+        if (problem.isWall(start)) {
+            return null;
+        }
+        repair();
+        if (g[start] == INFINITE) {
+            return null;
+        }
+
+        // Every cell along the cheapest path is consistent, so following the
+        // cheapest neighbor from the start walks that path
+        SearchTreeNode node = new SearchTreeNode(start, (byte) -1, null, 0, 0);
+        for (int cell = start; !isTarget(cell);) {
+            int count = problem.getTransitions(cell, cells, actions), best = -1, bestCost = INFINITE;
+            for (int i = 0; i < count; i++) {
+                if (g[cells[i]] != INFINITE && g[cells[i]] + problem.getCost(cells[i]) < bestCost) {
+                    best = i;
+                    bestCost = g[cells[i]] + problem.getCost(cells[i]);
+                }
+            }
+            cell = cells[best];
+            node = new SearchTreeNode(cell, actions[best], node, node.g + problem.getCost(cell), 0);
+        }
+        return node;
+    }
+
+    /**
+     * Records that the tile of the given cell has changed, requeuing every cell
+     * whose rhs depends on it: the cell itself and its neighbors, which enter it.
+     *
+     * @param cell The changed cell index
+     */
+    void tileChanged (int cell) {
+        if (!started) {
+            return;
+        }
+        updateVertex(cell);
+        updateNeighbors(cell);
+    }
+
+    /**
+     * Seeds the search with its target cells, whose rhs is 0.
+     */
+    private void initialize (int from) {
+        Arrays.fill(g, INFINITE);
+        Arrays.fill(rhs, INFINITE);
+        start = from;
+        started = true;
+        if (target == MazeQuery.ANY_GOAL) {
+            for (int goal : problem.getGoalCells()) {
+                updateVertex(goal);
+            }
+        } else {
+            updateVertex(target);
+        }
+    }
+
+    /**
+     * Expands queued cells until the start is consistent and no queued key is
+     * smaller than or tied with its own, which leaves every cell on its cheapest
+     * path consistent as well.
+     */
+    private void repair () {
+        while (!open.isEmpty()) {
+            int u = open.peek(), old = open.peekKey();
+            if (old > key(start) && g[start] == rhs[start]) {
+                break;
+            }
+            int fresh = key(u);
+            if (old < fresh) {
+                open.update(u, fresh);
+                continue;
+            }
+            open.remove(u);
+            expansions++;
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+            } else {
+                g[u] = INFINITE;
+                updateVertex(u);
+            }
+            updateNeighbors(u);
+        }
+    }
+
+    /**
+     * Updates the open neighbors of the given cell, whose rhs may depend on it.
+     */
+    private void updateNeighbors (int cell) {
+        // updateVertex reuses the cells buffer, so the neighbors get their own
+        int count = problem.getTransitions(cell, around, actions);
+        for (int i = 0; i < count; i++) {
+            updateVertex(around[i]);
+        }
+    }
+
+    /**
+     * Recomputes the rhs of the given cell from its neighbors, and queues it if it
+     * is inconsistent or dequeues it if not.
+     */
+    private void updateVertex (int u) {
+        if (problem.isWall(u)) {
+            rhs[u] = INFINITE;
+        } else if (isTarget(u)) {
+            rhs[u] = 0;
+        } else {
+            int best = INFINITE;
+            int count = problem.getTransitions(u, cells, actions);
+            for (int i = 0; i < count; i++) {
+                int v = cells[i];
+                if (g[v] != INFINITE) {
+                    best = Math.min(best, g[v] + problem.getCost(v));
+                }
+            }
+            rhs[u] = best;
+        }
+        if (g[u] != rhs[u]) {
+            open.update(u, key(u));
+        } else {
+            open.remove(u);
+        }
+    }
+
+    /**
+     * @return The queue key of the given cell, INFINITE if it has no known path
+     */
+    private int key (int u) {
+        int cost = Math.min(g[u], rhs[u]);
+        return (cost == INFINITE) ? INFINITE : cost + problem.manhattan(start, u) + km;
+    }
+
+    private boolean isTarget (int cell) {
+        return (target == MazeQuery.ANY_GOAL) ? problem.isGoal(cell) : cell == target;
+    }
+
+}
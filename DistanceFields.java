@@ -0,0 +1,109 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Exact cost-to-go tables for a static maze: for every cell, the cost of the
+ * cheapest path from it to the nearest goal tile and to the key. Each table is
+ * filled by one multi-source Dijkstra search run backward from its targets, so
+ * a lookup replaces the per-goal loop of the Manhattan estimate and accounts for
+ * walls and mud. As a Heuristic the tables guide both legs of a solve straight
+ * along an optimal path, and tell the searches which cells cannot reach the
+ * target at all.
+ * <p>
+ * Build them once per maze and pass them to each solve that should use them with
+ * {@link SolveOptions#withHeuristic(Heuristic)}; they are immutable, so any
+ * number of solves may share them.
+ */
+public class DistanceFields implements Heuristic {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final MazeProblem problem;
+    private final int keyCell;
+    private final int[] toGoal, toKey;
+
+    /**
+     * Constructs the distance fields of the given maze, running one Dijkstra
+     * search over the whole grid from all of its goals and one from its key.
+     *
+     * @param problem The MazeProblem whose maze is measured
+     */
+    public DistanceFields (MazeProblem problem) {
+        this.problem = problem;
+        this.keyCell = problem.getKeyCell();
+        this.toGoal = costsTo(problem, problem.getGoalCells());
+        this.toKey = costsTo(problem, (keyCell < 0) ? new int[0] : new int[] {keyCell});
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @param cell A cell index (row * cols + col) in the maze
+     * @return The cost of the cheapest path from the cell to any goal tile, or
+     * UNREACHABLE if there is none
+     */
+    public int toGoal (int cell) {
+        return toGoal[cell];
+    }
+
+    /**
+     * @param cell A cell index (row * cols + col) in the maze
+     * @return The cost of the cheapest path from the cell to the key, or
+     * UNREACHABLE if there is none
+     */
+    public int toKey (int cell) {
+        return toKey[cell];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Exact for the nearest goal and for the maze's key; any other target falls
+     * back to the Manhattan distance.
+     */
+    @Override
+    public int estimate (int cell, int target) {
+        if (target == MazeQuery.ANY_GOAL) {
+            return toGoal[cell];
+        }
+        return (target == keyCell) ? toKey[cell] : problem.manhattan(cell, target);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm backward from all of the given cells at once.
+     * Moves pay for the tile they enter, so stepping back from a cell to its
+     * neighbor costs what entering the cell does.
+     *
+     * @return The cost of the cheapest path from every cell to the nearest of the
+     * given cells, UNREACHABLE for walls and cells with no such path
+     */
+    static int[] costsTo (MazeProblem problem, int[] targets) {
+        int size = problem.getGrid().size();
+        int[] costs = new int[size];
+        Arrays.fill(costs, UNREACHABLE);
+        // Entering costs are 1 or 3, so queued costs span at most 4 buckets
+        Frontier frontier = new BucketQueue(size, 4);
+        for (int target : targets) {
+            costs[target] = 0;
+            frontier.push(target, 0);
+        }
+        int[] cells = new int[4];
+        byte[] actions = new byte[4];
+        while (!frontier.isEmpty()) {
+            int cell = frontier.pop();
+            int cost = costs[cell] + problem.getCost(cell);
+            int count = problem.getTransitions(cell, cells, actions);
+            for (int i = 0; i < count; i++) {
+                if (cost < costs[cells[i]]) {
+                    costs[cells[i]] = cost;
+                    frontier.push(cells[i], cost);
+                }
+            }
+        }
+        return costs;
+    }
+
+}
@@ -0,0 +1,93 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maze whose walls and mud can change at runtime. Tiles are changed in place in
+ * one {@link MazeProblem}, and every {@link IncrementalPlanner} made by this maze
+ * hears of each change, so that it repairs its previous plan instead of solving
+ * again from scratch.
+ * <p>
+ * Only wall, open and mud tiles change; the initial cell, key and goals stay where
+ * the maze put them. A DynamicMaze is not thread-safe: change tiles and replan from
+ * one thread, or between solves that share its problem.
+ */
+public class DynamicMaze {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final MazeProblem problem;
+    private final List<IncrementalPlanner> planners = new ArrayList<>();
+
+    /**
+     * Constructs a new DynamicMaze from the given maze, in the format of
+     * {@link MazeProblem#MazeProblem(String[])}.
+     *
+     * @param maze An array of Strings in which characters represent the maze
+     */
+    public DynamicMaze (String[] maze) {
+        this.problem = new MazeProblem(maze);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return The MazeProblem whose tiles this maze changes; it may also be given
+     * to any other solver between changes
+     */
+    public MazeProblem getProblem () {
+        return problem;
+    }
+
+    /**
+     * [Mutator] Changes the tile of the given cell and tells every open planner.
+     *
+     * @param cell A cell index (row * cols + col) holding a wall, open or mud tile
+     * @param tile MazeGrid.WALL, OPEN or MUD
+     * @throws IllegalArgumentException If the cell is outside of the maze, holds the
+     * initial cell, key or a goal, or the tile is not a wall, open or mud tile
+     */
+    public void setTile (int cell, byte tile) {
+        if (cell < 0 || cell >= problem.getGrid().size() || !isTerrain(problem.getTile(cell))) {
+            throw new IllegalArgumentException("Cell " + cell + " is not a wall, open or mud tile");
+        }
+        if (!isTerrain(tile)) {
+            throw new IllegalArgumentException("Tile " + tile + " is not a wall, open or mud tile");
+        }
+        if (problem.getTile(cell) == tile) {
+            return;
+        }
+        problem.setTile(cell, tile);
+        for (IncrementalPlanner planner : planners) {
+            planner.tileChanged(cell);
+        }
+    }
+
+    /**
+     * Starts planning for the given query. The planner follows this maze's changes
+     * until it is closed.
+     *
+     * @param query The MazeQuery to plan, from its initial cell
+     * @return A new IncrementalPlanner for the query
+     */
+    public IncrementalPlanner plan (MazeQuery query) {
+        IncrementalPlanner planner = new IncrementalPlanner(this, query);
+        planners.add(planner);
+        return planner;
+    }
+
+    /**
+     * Stops sending changes to the given planner.
+     */
+    void detach (IncrementalPlanner planner) {
+        planners.remove(planner);
+    }
+
+    private static boolean isTerrain (byte tile) {
+        return tile == MazeGrid.WALL || tile == MazeGrid.OPEN || tile == MazeGrid.MUD;
+    }
+
+}
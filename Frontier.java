@@ -0,0 +1,41 @@
+package pathfinder.informed;
+
+/**
+ * Open list of cell indices ordered by priority (f-value) for the informed search.
+ * Implementations keep at most one live entry per cell: pushing a cell that is
+ * already in the frontier lowers its priority if the new one is smaller.
+ */
+public interface Frontier {
+
+    /**
+     * Adds the given cell with the given priority, or lowers its priority if it is
+     * already in the frontier with a larger one.
+     *
+     * @param cell A cell index
+     * @param key The priority (f-value) of the cell
+     */
+    void push (int cell, int key);
+
+    /**
+     * Removes and returns the cell with the smallest priority.
+     *
+     * @return The cell index at the front of the frontier
+     */
+    int pop ();
+
+    /**
+     * @return Whether or not the frontier holds no cells
+     */
+    boolean isEmpty ();
+
+    /**
+     * @return The number of cells in the frontier
+     */
+    int size ();
+
+    /**
+     * Removes every cell from the frontier.
+     */
+    void clear ();
+
+}
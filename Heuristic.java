@@ -0,0 +1,36 @@
+package pathfinder.informed;
+
+/**
+ * Lower bound on the cost of reaching a target from a cell, used to order the
+ * informed searches. Every implementation must be consistent: the estimate of a
+ * cell may exceed that of its neighbor by no more than the cost of entering the
+ * neighbor, which keeps the searches optimal without reopening expanded cells.
+ */
+public interface Heuristic {
+
+    /**
+     * Estimate returned for cells from which the target cannot be reached at all;
+     * the searches never queue such cells.
+     */
+    int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * @param cell A cell index (row * cols + col) in the maze
+     * @param target The cell index of the target, or MazeQuery.ANY_GOAL for the
+     * nearest goal tile
+     * @return A lower bound on the cost of the cheapest path from cell to the
+     * target, or UNREACHABLE if there is no such path
+     */
+    int estimate (int cell, int target);
+
+    /**
+     * @param problem The MazeProblem to estimate distances within
+     * @return The default heuristic: the Manhattan distance to the target, or to
+     * the nearest goal, ignoring walls and mud
+     */
+    static Heuristic manhattan (MazeProblem problem) {
+        return (cell, target) -> (target == MazeQuery.ANY_GOAL)
+            ? problem.estimateDistance(cell, true) : problem.manhattan(cell, target);
+    }
+
+}
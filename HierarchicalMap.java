@@ -0,0 +1,634 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical pathfinding (HPA*) layer over one maze. The grid is split into
+ * square clusters, and every maximal run of open cells facing each other across a
+ * cluster border becomes an entrance, crossed at its middle if it is short and at
+ * both ends if it is long. Those transition cells, the goals and the key form a
+ * small abstract graph: cells on either side of a transition are joined by the
+ * cost of stepping across, and the cells of one cluster by their exact costs to
+ * each other within the cluster under the 'M'/'.' cost model.
+ * <p>
+ * A query joins its start and target to their clusters' abstract nodes, searches
+ * the abstract graph, then refines only the clusters on the abstract path:
+ * <ul>
+ * <li>{@link Refinement#FAST} follows the abstract path exactly, searching each
+ * cluster it crosses between its entry and exit cells. The path is near-optimal,
+ * and may be longer than the best one because entrances are sparse.</li>
+ * <li>{@link Refinement#EXACT} searches the whole corridor of clusters on the
+ * abstract path at once, finding the cheapest path that stays within it. The
+ * path is optimal only within that corridor: a cheaper one through clusters off
+ * the abstract path is never found. Callers that need an optimal path should use
+ * {@link Pathfinder#solve(MazeProblem, MazeQuery, SearchContext)} instead.</li>
+ * </ul>
+ * Queries only read the hierarchy, so many may run at once with their own
+ * SearchContexts; {@link #update(MazeProblem, int)} must not run alongside them.
+ */
+public class HierarchicalMap {
+
+    /**
+     * How the abstract path of a query is turned into a path through the maze.
+     */
+    public enum Refinement { FAST, EXACT }
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    private static final int SHORT_ENTRANCE = 6;
+    private MazeProblem problem;
+    private final int size, clusterRows, clusterCols;
+    private final Cluster[] clusters;
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private Node[] byId = new Node[64];
+    private int nextId;
+
+    /**
+     * Constructs the hierarchy of the given maze with DEFAULT_CLUSTER_SIZE clusters.
+     *
+     * @param problem The MazeProblem to abstract
+     */
+    public HierarchicalMap (MazeProblem problem) {
+        this(problem, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Constructs the hierarchy of the given maze.
+     *
+     * @param problem The MazeProblem to abstract
+     * @param size The width and height of each cluster, in cells; larger clusters
+     * make the abstract graph smaller and the refinement searches longer
+     * @throws IllegalArgumentException If size is less than 2
+     */
+    public HierarchicalMap (MazeProblem problem, int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2");
+        }
+        MazeGrid grid = problem.getGrid();
+        this.problem = problem;
+        this.size = size;
+        this.clusterRows = (grid.rows + size - 1) / size;
+        this.clusterCols = (grid.cols + size - 1) / size;
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        for (int k = 0; k < clusters.length; k++) {
+            int row = (k / clusterCols) * size, col = (k % clusterCols) * size;
+            clusters[k] = new Cluster(row, col, Math.min(size, grid.rows - row), Math.min(size, grid.cols - col));
+        }
+        for (int k = 0; k < clusters.length; k++) {
+            linkEntrances(k, MazeProblem.RIGHT);
+            linkEntrances(k, MazeProblem.DOWN);
+            addSpecialNodes(k);
+        }
+        for (Cluster cluster : clusters) {
+            measure(cluster);
+        }
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return The number of clusters the maze is split into
+     */
+    public int clusterCount () {
+        return clusters.length;
+    }
+
+    /**
+     * @return The number of nodes in the abstract graph
+     */
+    public int nodeCount () {
+        return nodes.size();
+    }
+
+    /**
+     * Solves the given MazeProblem through the hierarchy.
+     *
+     * @param refinement How the abstract path is refined
+     * @return A MazePath that leads from the initial to a goal state, or null if
+     * there is no solution
+     */
+    public MazePath findPath (Refinement refinement) {
+        return solve(MazeQuery.of(problem), new SearchContext(problem), refinement).path;
+    }
+
+    /**
+     * Finds a path for the given query like
+     * {@link Pathfinder#solve(MazeProblem, MazeQuery, SearchContext)}, running both
+     * legs through the hierarchy. EXACT refinement is never costlier than FAST,
+     * and neither is cheaper than Pathfinder's optimal path.
+     *
+     * @param query The MazeQuery to solve within the hierarchy's maze
+     * @param context A SearchContext with room for the maze's grid
+     * @param refinement How the abstract path is refined
+     * @return A SolveResult with the path and its cost, or an unsolved result if
+     * there is no solution
+     * @throws IllegalArgumentException If the context is too small for the maze, or
+     * a cell of the query lies outside of the maze or on a wall
+     */
+    public SolveResult solve (MazeQuery query, SearchContext context, Refinement refinement) {
+        Pathfinder.LegSearch leg = (maze, scratch, start, target) -> search(scratch, start, target, refinement);
+        return Pathfinder.solve(problem, query, context, SolveOptions.NONE, leg, leg);
+    }
+
+    /**
+     * Rebinds the hierarchy to a maze that differs from its current one in the
+     * tile of one cell, rebuilding only that cell's cluster: its entrances, its
+     * abstract nodes, and the costs within it and within its four neighbors,
+     * whose entrances it shares.
+     *
+     * @param problem The changed MazeProblem, with the same dimensions
+     * @param cell The cell index of the changed tile
+     * @throws IllegalArgumentException If the maze's dimensions differ
+     */
+    public void update (MazeProblem problem, int cell) {
+        MazeGrid grid = problem.getGrid(), old = this.problem.getGrid();
+        if (grid.rows != old.rows || grid.cols != old.cols) {
+            throw new IllegalArgumentException("Maze dimensions changed");
+        }
+        this.problem = problem;
+        int k = clusterOf(cell);
+        for (Node node : new ArrayList<>(clusters[k].members)) {
+            for (int d = 0; d < 4; d++) {
+                Node partner = node.partners[d];
+                if (partner != null) {
+                    partner.partners[d ^ 1] = null;
+                    if (!partner.isLinked() && !partner.special) {
+                        remove(partner);
+                    }
+                }
+            }
+            remove(node);
+        }
+        for (byte d = 0; d < 4; d++) {
+            int neighbor = neighborOf(k, d);
+            if (neighbor >= 0) {
+                // Entrances are linked from the upper or left cluster of each pair
+                if (d == MazeProblem.RIGHT || d == MazeProblem.DOWN) {
+                    linkEntrances(k, d);
+                } else {
+                    linkEntrances(neighbor, (byte) (d ^ 1));
+                }
+            }
+        }
+        addSpecialNodes(k);
+        measure(clusters[k]);
+        for (byte d = 0; d < 4; d++) {
+            int neighbor = neighborOf(k, d);
+            if (neighbor >= 0) {
+                measure(clusters[neighbor]);
+            }
+        }
+    }
+
+    /**
+     * Runs one leg: an A* search of the abstract graph from start to target, then
+     * the refinement of its path.
+     */
+    private SearchTreeNode search (SearchContext context, int start, int target, Refinement refinement) {
+        int[] path = abstractPath(context, start, target);
+        if (path == null) {
+            return null;
+        }
+        boolean[] allowed = new boolean[clusters.length];
+        if (refinement == Refinement.EXACT) {
+            for (int cell : path) {
+                allowed[clusterOf(cell)] = true;
+            }
+            return regionSearch(context, start, target, allowed);
+        }
+        SearchTreeNode tail = new SearchTreeNode(start, (byte) -1, null, 0, 0);
+        for (int i = 1; i < path.length; i++) {
+            int from = path[i - 1], to = path[i], k = clusterOf(from);
+            if (clusterOf(to) != k) {
+                // A transition: one step across the border
+                tail = new SearchTreeNode(to, directionOf(from, to), tail, tail.g + problem.getCost(to), 0);
+                continue;
+            }
+            allowed[k] = true;
+            SearchTreeNode segment = regionSearch(context, from, to, allowed);
+            allowed[k] = false;
+            if (segment == null) {
+                // Only a limit of the solve stops a search within one cluster
+                return null;
+            }
+            tail = extend(tail, segment);
+        }
+        return tail;
+    }
+
+    /**
+     * Finds the cheapest path through the abstract graph, after joining the start
+     * cell to the nodes of its cluster and, unless it is ANY_GOAL, the nodes of the
+     * target's cluster to the target cell.
+     *
+     * Its expansions are counted in the given context's.
+     *
+     * @return The cells of the abstract path from start to the target, or null if
+     * there is none
+     */
+    private int[] abstractPath (SearchContext context, int start, int target) {
+        boolean anyGoal = (target == MazeQuery.ANY_GOAL);
+        Heuristic heuristic = context.heuristic(problem);
+        int startId = nextId, targetId = nextId + 1;
+        Node startNode = nodes.get(start), targetNode = anyGoal ? null : nodes.get(target);
+
+        // Costs from the start to its cluster's nodes, and from the target's to it
+        Cluster startCluster = clusters[clusterOf(start)];
+        int[] fromStart = (startNode == null) ? startCluster.costsFrom(start, false) : null;
+        Cluster targetCluster = anyGoal ? null : clusters[clusterOf(target)];
+        int[] toTarget = (targetNode == null && !anyGoal) ? targetCluster.costsFrom(target, true) : null;
+
+        int[] g = new int[nextId + 2], parent = new int[nextId + 2];
+        Arrays.fill(g, Heuristic.UNREACHABLE);
+        ClosedSet closed = new ClosedSet(nextId + 2);
+        IndexedHeap open = new IndexedHeap(nextId + 2);
+        int source = (startNode != null) ? startNode.id : startId;
+        g[source] = 0;
+        parent[source] = -1;
+        int h = heuristic.estimate(start, target);
+        if (h == Heuristic.UNREACHABLE) {
+            return null;
+        }
+        open.push(source, h);
+
+        while (!open.isEmpty()) {
+            int u = open.pop();
+            int cell = (u == startId) ? start : (u == targetId) ? target : byId[u].cell;
+            if (u == targetId || (anyGoal ? problem.isGoal(cell) : cell == target)) {
+                return unwind(parent, u, start, target, startId, targetId);
+            }
+            if (context.expand(cell, g[u])) {
+                return null;
+            }
+            closed.add(u);
+            if (u == startId) {
+                for (int i = 0; i < startCluster.members.size(); i++) {
+                    relax(startCluster.members.get(i), fromStart[startCluster.local(startCluster.members.get(i).cell)],
+                        u, g, parent, closed, open, heuristic, target);
+                }
+                if (toTarget != null && startCluster == targetCluster) {
+                    int cost = fromStart[startCluster.local(target)];
+                    relax(targetId, target, cost, u, g, parent, closed, open, 0);
+                }
+                continue;
+            }
+            Node node = byId[u];
+            Cluster cluster = clusters[node.cluster];
+            int n = cluster.members.size();
+            for (int i = 0; i < n; i++) {
+                relax(cluster.members.get(i), cluster.costs[node.slot * n + i], u, g, parent, closed, open, heuristic, target);
+            }
+            for (Node partner : node.partners) {
+                if (partner != null) {
+                    relax(partner, problem.getCost(partner.cell), u, g, parent, closed, open, heuristic, target);
+                }
+            }
+            if (toTarget != null && cluster == targetCluster) {
+                relax(targetId, target, toTarget[cluster.local(cell)], u, g, parent, closed, open, 0);
+            }
+        }
+        return null;
+    }
+
+    private void relax (Node node, int cost, int from, int[] g, int[] parent, ClosedSet closed,
+            IndexedHeap open, Heuristic heuristic, int target) {
+        if (cost == Heuristic.UNREACHABLE || closed.contains(node.id)) {
+            return;
+        }
+        int h = heuristic.estimate(node.cell, target);
+        if (h != Heuristic.UNREACHABLE) {
+            relax(node.id, node.cell, cost, from, g, parent, closed, open, h);
+        }
+    }
+
+    private void relax (int id, int cell, int cost, int from, int[] g, int[] parent, ClosedSet closed,
+            IndexedHeap open, int h) {
+        if (cost == Heuristic.UNREACHABLE || closed.contains(id)) {
+            return;
+        }
+        int cand = g[from] + cost;
+        if (cand < g[id]) {
+            g[id] = cand;
+            parent[id] = from;
+            open.push(id, cand + h);
+        }
+    }
+
+    /**
+     * @return The cells of the abstract path that ends at the given node
+     */
+    private int[] unwind (int[] parent, int end, int start, int target, int startId, int targetId) {
+        int length = 0;
+        for (int u = end; u >= 0; u = parent[u]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for (int u = end, i = length - 1; u >= 0; u = parent[u], i--) {
+            cells[i] = (u == startId) ? start : (u == targetId) ? target : byId[u].cell;
+        }
+        return cells;
+    }
+
+    /**
+     * Runs an A* search from start to target, or to the nearest goal for
+     * MazeQuery.ANY_GOAL, that never leaves the allowed clusters.
+     */
+    private SearchTreeNode regionSearch (SearchContext context, int start, int target, boolean[] allowed) {
+        Frontier frontier = context.frontier;
+        ClosedSet graveyard = context.graveyard;
+        int[] cells = context.cells;
+        byte[] actions = context.actions;
+        Heuristic heuristic = context.heuristic(problem);
+        context.reset();
+        SearchTreeNode root = new SearchTreeNode(start, (byte) -1, null, 0, heuristic.estimate(start, target));
+        context.putNode(root);
+        frontier.push(start, root.f);
+        context.pushes++;
+
+        while (!frontier.isEmpty()) {
+            SearchTreeNode current = context.getNode(frontier.pop());
+            if ((target == MazeQuery.ANY_GOAL) ? problem.isGoal(current.cell) : current.cell == target) {
+                return current;
+            }
+            // Region searches start at segment ends, not the leg's start, so
+            // they offer no partial paths
+            if (context.expand(current.cell, current.g)) {
+                return null;
+            }
+            graveyard.add(current.cell);
+
+            int count = problem.getTransitions(current.cell, cells, actions);
+            for (int i = 0; i < count; i++) {
+                int cell = cells[i];
+                if (graveyard.contains(cell) || !allowed[clusterOf(cell)]) {
+                    continue;
+                }
+                int g = current.g + problem.getCost(cell);
+                SearchTreeNode node = context.getNode(cell);
+                if (node == null) {
+                    int h = heuristic.estimate(cell, target);
+                    if (h == Heuristic.UNREACHABLE) {
+                        continue;
+                    }
+                    node = new SearchTreeNode(cell, actions[i], current, g, h);
+                    context.putNode(node);
+                    context.pushes++;
+                } else if (node.reroute(actions[i], current, g)) {
+                    context.reopens++;
+                } else {
+                    continue;
+                }
+                frontier.push(cell, node.f);
+            }
+            context.sampleFrontier(frontier.size());
+        }
+        return null;
+    }
+
+    /**
+     * @return A copy of the path to the given segment end, grafted onto tail, whose
+     * cell is the segment's root
+     */
+    private static SearchTreeNode extend (SearchTreeNode tail, SearchTreeNode end) {
+        int length = 0;
+        for (SearchTreeNode p = end; p.parent != null; p = p.parent) {
+            length++;
+        }
+        SearchTreeNode[] segment = new SearchTreeNode[length];
+        for (SearchTreeNode p = end; p.parent != null; p = p.parent) {
+            segment[--length] = p;
+        }
+        for (SearchTreeNode p : segment) {
+            tail = new SearchTreeNode(p.cell, p.action, tail, tail.g + p.g - p.parent.g, 0);
+        }
+        return tail;
+    }
+
+    /**
+     * Adds a transition for each entrance on the border between cluster k and its
+     * neighbor in the given direction, RIGHT or DOWN.
+     */
+    private void linkEntrances (int k, byte direction) {
+        int neighbor = neighborOf(k, direction);
+        if (neighbor < 0) {
+            return;
+        }
+        Cluster cluster = clusters[k];
+        MazeGrid grid = problem.getGrid();
+        boolean right = (direction == MazeProblem.RIGHT);
+        int length = right ? cluster.rows : cluster.cols;
+        int step = right ? grid.cols : 1, across = right ? 1 : grid.cols;
+        int first = right ? grid.index(cluster.col + cluster.cols - 1, cluster.row)
+                          : grid.index(cluster.col, cluster.row + cluster.rows - 1);
+        int run = 0;
+        for (int i = 0; i <= length; i++) {
+            int cell = first + i * step;
+            if (i < length && !problem.isWall(cell) && !problem.isWall(cell + across)) {
+                run++;
+                continue;
+            }
+            if (run > 0) {
+                int end = first + (i - 1) * step, begin = end - (run - 1) * step;
+                if (run < SHORT_ENTRANCE) {
+                    link(begin + (run / 2) * step, across, direction);
+                } else {
+                    link(begin, across, direction);
+                    link(end, across, direction);
+                }
+                run = 0;
+            }
+        }
+    }
+
+    /**
+     * Joins the given cell and its neighbor across a cluster border.
+     */
+    private void link (int cell, int across, byte direction) {
+        Node a = node(cell), b = node(cell + across);
+        a.partners[direction] = b;
+        b.partners[direction ^ 1] = a;
+    }
+
+    /**
+     * Adds a node for each goal and the key in cluster k, so that searches to them
+     * need no per-query insertion.
+     */
+    private void addSpecialNodes (int k) {
+        Cluster cluster = clusters[k];
+        MazeGrid grid = problem.getGrid();
+        for (int r = cluster.row; r < cluster.row + cluster.rows; r++) {
+            for (int c = cluster.col; c < cluster.col + cluster.cols; c++) {
+                int cell = grid.index(c, r);
+                if (problem.isGoal(cell) || problem.isKey(cell)) {
+                    node(cell).special = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The node of the given cell, created if it has none
+     */
+    private Node node (int cell) {
+        Node node = nodes.get(cell);
+        if (node == null) {
+            node = new Node(nextId++, cell, clusterOf(cell));
+            if (node.id == byId.length) {
+                byId = Arrays.copyOf(byId, byId.length * 2);
+            }
+            byId[node.id] = node;
+            nodes.put(cell, node);
+            clusters[node.cluster].members.add(node);
+        }
+        return node;
+    }
+
+    private void remove (Node node) {
+        nodes.remove(node.cell);
+        byId[node.id] = null;
+        clusters[node.cluster].members.remove(node);
+    }
+
+    /**
+     * Fills in the costs between every pair of the given cluster's nodes.
+     */
+    private void measure (Cluster cluster) {
+        List<Node> members = cluster.members;
+        int n = members.size();
+        int[] costs = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            members.get(i).slot = i;
+            int[] from = cluster.costsFrom(members.get(i).cell, false);
+            for (int j = 0; j < n; j++) {
+                costs[i * n + j] = from[cluster.local(members.get(j).cell)];
+            }
+        }
+        cluster.costs = costs;
+    }
+
+    private int clusterOf (int cell) {
+        MazeGrid grid = problem.getGrid();
+        return (grid.row(cell) / size) * clusterCols + grid.col(cell) / size;
+    }
+
+    /**
+     * @return The index of the cluster next to cluster k in the given direction, or
+     * -1 if k is on that edge of the maze
+     */
+    private int neighborOf (int k, byte direction) {
+        int row = k / clusterCols, col = k % clusterCols;
+        switch (direction) {
+        case MazeProblem.UP:    return row > 0 ? k - clusterCols : -1;
+        case MazeProblem.DOWN:  return row < clusterRows - 1 ? k + clusterCols : -1;
+        case MazeProblem.LEFT:  return col > 0 ? k - 1 : -1;
+        default:                return col < clusterCols - 1 ? k + 1 : -1;
+        }
+    }
+
+    /**
+     * @return The action code of the move between two adjacent cells
+     */
+    private byte directionOf (int from, int to) {
+        int cols = problem.getGrid().cols;
+        return (to == from - cols) ? MazeProblem.UP : (to == from + cols) ? MazeProblem.DOWN
+             : (to == from - 1) ? MazeProblem.LEFT : MazeProblem.RIGHT;
+    }
+
+
+    // Abstract Graph
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Node of the abstract graph: a transition cell, goal or key.
+     */
+    private static class Node {
+
+        final int id, cell, cluster;
+        final Node[] partners = new Node[4];  // across the border in each direction
+        boolean special;
+        int slot;                             // index among its cluster's members
+
+        Node (int id, int cell, int cluster) {
+            this.id = id;
+            this.cell = cell;
+            this.cluster = cluster;
+        }
+
+        boolean isLinked () {
+            return partners[0] != null || partners[1] != null || partners[2] != null || partners[3] != null;
+        }
+
+    }
+
+    /**
+     * Rectangle of the grid with the abstract nodes inside of it and the exact
+     * costs between them.
+     */
+    private class Cluster {
+
+        final int row, col, rows, cols;
+        final List<Node> members = new ArrayList<>();
+        int[] costs;  // members x members, UNREACHABLE if not connected inside
+
+        Cluster (int row, int col, int rows, int cols) {
+            this.row = row;
+            this.col = col;
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        /**
+         * @return The index of the given cell within this cluster
+         */
+        int local (int cell) {
+            MazeGrid grid = problem.getGrid();
+            return (grid.row(cell) - row) * cols + grid.col(cell) - col;
+        }
+
+        /**
+         * Runs Dijkstra's algorithm from the given cell without leaving this
+         * cluster; backward, it measures costs to the cell instead of from it.
+         *
+         * @return The cost between the cell and every cell of this cluster, by
+         * local index, UNREACHABLE where there is no path within the cluster
+         */
+        int[] costsFrom (int source, boolean backward) {
+            MazeGrid grid = problem.getGrid();
+            int[] costs = new int[rows * cols];
+            Arrays.fill(costs, Heuristic.UNREACHABLE);
+            BucketQueue queue = new BucketQueue(costs.length, 4);
+            costs[local(source)] = 0;
+            queue.push(local(source), 0);
+            while (!queue.isEmpty()) {
+                int u = queue.pop(), r = u / cols, c = u % cols;
+                int cell = grid.index(col + c, row + r);
+                for (int d = 0; d < 4; d++) {
+                    int nr = r + (d == 0 ? -1 : d == 1 ? 1 : 0), nc = c + (d == 2 ? -1 : d == 3 ? 1 : 0);
+                    if (nr < 0 || nc < 0 || nr >= rows || nc >= cols) {
+                        continue;
+                    }
+                    int next = grid.index(col + nc, row + nr);
+                    if (problem.isWall(next)) {
+                        continue;
+                    }
+                    int cost = costs[u] + problem.getCost(backward ? cell : next);
+                    int v = nr * cols + nc;
+                    if (cost < costs[v]) {
+                        costs[v] = cost;
+                        queue.push(v, cost);
+                    }
+                }
+            }
+            return costs;
+        }
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package pathfinder.informed;
+
+/**
+ * Plans one MazeQuery on a {@link DynamicMaze} as its tiles change and its agent
+ * moves, repairing the previous plan instead of solving again. Each of the two
+ * legs is its own {@link DStarLite} search: one from the agent toward the key, and
+ * one from the key, or from the agent once it holds the key, toward the goal.
+ * Both keep their work between calls to {@link #replan()}, so that after a change
+ * only the cells whose costs it affects are expanded again.
+ */
+public class IncrementalPlanner implements AutoCloseable {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final DynamicMaze maze;
+    private final MazeProblem problem;
+    private final MazeQuery query;
+    private final DStarLite keyLeg, goalLeg;
+    private int position;
+    private boolean hasKey;
+
+    /**
+     * Constructs a new IncrementalPlanner; see {@link DynamicMaze#plan(MazeQuery)}.
+     */
+    IncrementalPlanner (DynamicMaze maze, MazeQuery query) {
+        this.maze = maze;
+        this.problem = maze.getProblem();
+        this.query = query;
+        this.keyLeg = new DStarLite(problem, query.key);
+        this.goalLeg = new DStarLite(problem, query.goal);
+        this.position = query.initial;
+        this.hasKey = (query.initial == query.key);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Plans the cheapest path from the agent's current cell, through the key unless
+     * it has already been collected, to the query's goal.
+     *
+     * @return A SolveResult with the path and its cost, or an unsolved result if
+     * there is no solution in the maze as it stands
+     */
+    public SolveResult replan () {
+        if (query.key < 0 || (query.goal == MazeQuery.ANY_GOAL && problem.getGoalCount() == 0)) {
+            return new SolveResult(null, -1);
+        }
+        MazeGrid grid = problem.getGrid();
+        if (hasKey) {
+            SearchTreeNode goal = goalLeg.search(position);
+            return (goal == null) ? new SolveResult(null, -1) : new SolveResult(goal.getPath(grid), goal.g);
+        }
+        SearchTreeNode key = keyLeg.search(position);
+        SearchTreeNode goal = (key == null) ? null : goalLeg.search(key.cell);
+        if (goal == null) {
+            return new SolveResult(null, -1);
+        }
+        return new SolveResult(key.getPath(grid).append(goal.getPath(grid)), key.g + goal.g);
+    }
+
+    /**
+     * Moves the agent to the given cell, usually the next one on its plan. The key
+     * counts as collected once the agent is moved onto it.
+     *
+     * @param cell The agent's new cell index
+     * @throws IllegalArgumentException If the cell is outside of the maze
+     */
+    public void moveTo (int cell) {
+        if (cell < 0 || cell >= problem.getGrid().size()) {
+            throw new IllegalArgumentException("Cell " + cell + " is outside of the maze");
+        }
+        position = cell;
+        hasKey |= (cell == query.key);
+    }
+
+    /**
+     * @return The agent's current cell index
+     */
+    public int getPosition () {
+        return position;
+    }
+
+    /**
+     * @return Whether or not the agent has collected the key
+     */
+    public boolean hasKey () {
+        return hasKey;
+    }
+
+    /**
+     * @return The total number of cells expanded by both legs so far
+     */
+    public long getExpansions () {
+        return keyLeg.expansions + goalLeg.expansions;
+    }
+
+    /**
+     * Stops following the maze's changes; the planner must not be used afterwards.
+     */
+    @Override
+    public void close () {
+        maze.detach(this);
+    }
+
+    /**
+     * Passes a changed tile on to both legs.
+     */
+    void tileChanged (int cell) {
+        keyLeg.tileChanged(cell);
+        goalLeg.tileChanged(cell);
+    }
+
+}
@@ -0,0 +1,235 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Open list for the informed search: a d-ary min-heap of cell indices keyed by
+ * their f-values, with true decrease-key so that each cell has at most one live
+ * entry. All storage is primitive arrays sized to the maze grid.
+ */
+public class IndexedHeap implements Frontier {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final int DEFAULT_ARITY = 4;
+    private final int arity;
+    private final int[] heap;   // heap slot -> cell
+    private final int[] slots;  // cell -> heap slot, or -1 if not in the heap
+    private final int[] keys;   // cell -> priority, valid while in the heap
+    private int size;
+
+    /**
+     * Constructs a new, empty IndexedHeap with the default fan-out.
+     *
+     * @param capacity The number of cells in the grid being searched
+     */
+    public IndexedHeap (int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs a new, empty IndexedHeap.
+     *
+     * @param capacity The number of cells in the grid being searched
+     * @param arity The number of children of each heap node (2 is a binary heap)
+     */
+    public IndexedHeap (int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.slots = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(slots, -1);
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return Whether or not the heap holds no cells
+     */
+    @Override
+    public boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of cells in the heap
+     */
+    @Override
+    public int size () {
+        return size;
+    }
+
+    /**
+     * @param cell A cell index
+     * @return Whether or not the cell currently has an entry in the heap
+     */
+    public boolean contains (int cell) {
+        return slots[cell] >= 0;
+    }
+
+    /**
+     * Adds the given cell with the given priority, or lowers its priority if it is
+     * already in the heap with a larger one; a larger priority is ignored.
+     *
+     * @param cell A cell index
+     * @param key The priority (f-value) of the cell
+     */
+    @Override
+    public void push (int cell, int key) {
+        int slot = slots[cell];
+        if (slot < 0) {
+            slot = size++;
+        } else if (key >= keys[cell]) {
+            return;
+        }
+        keys[cell] = key;
+        siftUp(slot, cell);
+    }
+
+    /**
+     * Removes and returns the cell with the smallest priority.
+     *
+     * @return The cell index at the top of the heap
+     */
+    @Override
+    public int pop () {
+        int top = heap[0];
+        slots[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return top;
+    }
+
+    /**
+     * @return The cell with the smallest priority, left in the heap
+     */
+    public int peek () {
+        return heap[0];
+    }
+
+    /**
+     * @return The smallest priority in the heap
+     */
+    public int peekKey () {
+        return keys[heap[0]];
+    }
+
+    /**
+     * Adds the given cell with the given priority, or moves it to that priority if
+     * it is already in the heap, whether the new one is smaller or larger.
+     *
+     * @param cell A cell index
+     * @param key The new priority of the cell
+     */
+    public void update (int cell, int key) {
+        int slot = slots[cell];
+        if (slot < 0) {
+            push(cell, key);
+            return;
+        }
+        int old = keys[cell];
+        keys[cell] = key;
+        if (key < old) {
+            siftUp(slot, cell);
+        } else {
+            siftDown(slot, cell);
+        }
+    }
+
+    /**
+     * Removes the given cell from the heap if it is in it.
+     *
+     * @param cell A cell index
+     */
+    public void remove (int cell) {
+        int slot = slots[cell];
+        if (slot < 0) {
+            return;
+        }
+        slots[cell] = -1;
+        int last = heap[--size];
+        if (slot < size) {
+            // The last cell fills the hole and moves whichever way its key says
+            siftUp(slot, last);
+            if (slots[last] == slot) {
+                siftDown(slot, last);
+            }
+        }
+    }
+
+    /**
+     * @return A new array of the cells in the heap, in no particular order
+     */
+    public int[] cells () {
+        return Arrays.copyOf(heap, size);
+    }
+
+    /**
+     * Removes every cell from the heap, in time proportional to its size.
+     */
+    @Override
+    public void clear () {
+        for (int i = 0; i < size; i++) {
+            slots[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the given cell up from the given slot until its parent's key is no
+     * larger than its own.
+     */
+    private void siftUp (int slot, int cell) {
+        int key = keys[cell];
+        while (slot > 0) {
+            int parentSlot = (slot - 1) / arity, parent = heap[parentSlot];
+            if (keys[parent] <= key) {
+                break;
+            }
+            heap[slot] = parent;
+            slots[parent] = slot;
+            slot = parentSlot;
+        }
+        heap[slot] = cell;
+        slots[cell] = slot;
+    }
+
+    /**
+     * Moves the given cell down from the given slot until none of its children
+     * have a smaller key.
+     */
+    private void siftDown (int slot, int cell) {
+        int key = keys[cell];
+        while (true) {
+            int first = slot * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int end = Math.min(first + arity, size), minSlot = first, minKey = keys[heap[first]];
+            for (int child = first + 1; child < end; child++) {
+                int childKey = keys[heap[child]];
+                if (childKey < minKey) {
+                    minSlot = child;
+                    minKey = childKey;
+                }
+            }
+            if (minKey >= key) {
+                break;
+            }
+            int child = heap[minSlot];
+            heap[slot] = child;
+            slots[child] = slot;
+            slot = minSlot;
+        }
+        heap[slot] = cell;
+        slots[cell] = slot;
+    }
+
+}
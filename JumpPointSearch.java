@@ -0,0 +1,249 @@
+package pathfinder.informed;
+
+/**
+ * Jump Point Search over the 4-connected maze grid. Runs of uniform-cost tiles are
+ * crossed in single jumps instead of being expanded cell by cell: among the many
+ * equally cheap staircase paths through an open area, only the ones that move
+ * vertically first and turn horizontal afterwards are followed, and a jump only
+ * stops where that canonical order has to be broken.
+ * <p>
+ * Jumps stop at the target, at any mud tile, and at any cell with a forced
+ * neighbor: one beside the jump that the cell behind could not have reached as
+ * cheaply, because the cell beside it is a wall or mud. Mud tiles are always
+ * expanded in all four directions, so paths through them are costed exactly as by
+ * {@link Pathfinder}, and the two solvers find paths of the same optimal cost.
+ * <p>
+ * A jump can cross any number of cells, so the f-values it queues may lie
+ * arbitrarily far above the last one popped, and a context built around a
+ * BucketQueue cannot hold them; use one with an IndexedHeap, the default.
+ */
+public class JumpPointSearch {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final byte[] ALL = {MazeProblem.UP, MazeProblem.DOWN, MazeProblem.LEFT, MazeProblem.RIGHT};
+    // Directions onward and sideways after a vertical move, by direction
+    private static final byte[][] AFTER_VERTICAL = {
+        {MazeProblem.UP, MazeProblem.LEFT, MazeProblem.RIGHT},
+        {MazeProblem.DOWN, MazeProblem.LEFT, MazeProblem.RIGHT}
+    };
+    // Directions onward after a horizontal move, by direction, then by forced
+    // turns: none, up, down, or both
+    private static final byte[][][] AFTER_HORIZONTAL = {
+        {{MazeProblem.LEFT}, {MazeProblem.LEFT, MazeProblem.UP},
+         {MazeProblem.LEFT, MazeProblem.DOWN}, {MazeProblem.LEFT, MazeProblem.UP, MazeProblem.DOWN}},
+        {{MazeProblem.RIGHT}, {MazeProblem.RIGHT, MazeProblem.UP},
+         {MazeProblem.RIGHT, MazeProblem.DOWN}, {MazeProblem.RIGHT, MazeProblem.UP, MazeProblem.DOWN}}
+    };
+
+    private JumpPointSearch () {}
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Solves the given MazeProblem with Jump Point Search.
+     *
+     * @param problem A MazeProblem that specifies the maze, actions, transitions
+     * @return A MazePath that leads from the initial to a goal state, or null if
+     * there is no solution
+     */
+    public static MazePath findPath (MazeProblem problem) {
+        return solve(problem, MazeQuery.of(problem), new SearchContext(problem)).path;
+    }
+
+    /**
+     * Finds the cheapest path for the given query like
+     * {@link Pathfinder#solve(MazeProblem, MazeQuery, SearchContext)}, but running
+     * both legs as jump point searches.
+     *
+     * @param problem A MazeProblem that specifies the maze, actions, transitions
+     * @param query The MazeQuery to solve within the problem's maze
+     * @param context A SearchContext with room for the problem's grid
+     * @return A SolveResult with the path and its cost, or an unsolved result if
+     * there is no solution
+     * @throws IllegalArgumentException If the context is too small for the maze or
+     * is built around a BucketQueue, or a cell of the query lies outside of the
+     * maze or on a wall
+     */
+    public static SolveResult solve (MazeProblem problem, MazeQuery query, SearchContext context) {
+        return solve(problem, query, context, SolveOptions.NONE);
+    }
+
+    /**
+     * Solves the given query as in {@link #solve(MazeProblem, MazeQuery, SearchContext)},
+     * with the limits and heuristic of the given options, like
+     * {@link Pathfinder#solve(MazeProblem, MazeQuery, SearchContext, SolveOptions)}.
+     *
+     * @param problem A MazeProblem that specifies the maze, actions, transitions
+     * @param query The MazeQuery to solve within the problem's maze
+     * @param context A SearchContext with room for the problem's grid
+     * @param options The SolveOptions that limit and guide the solve
+     * @return A SolveResult with the path and its cost, a partial result if a limit
+     * was reached, or an unsolved result if there is no solution
+     * @throws IllegalArgumentException If the context is too small for the maze or
+     * is built around a BucketQueue, or a cell of the query lies outside of the
+     * maze or on a wall
+     */
+    public static SolveResult solve (MazeProblem problem, MazeQuery query, SearchContext context,
+            SolveOptions options) {
+        if (context.frontier instanceof BucketQueue) {
+            throw new IllegalArgumentException("Jump point search needs a frontier without a priority window, not a BucketQueue");
+        }
+        return Pathfinder.solve(problem, query, context, options, JumpPointSearch::search, JumpPointSearch::search);
+    }
+
+    /**
+     * Runs one leg as an A* search over jump points.
+     */
+    static SearchTreeNode search (MazeProblem problem, SearchContext context, int start, int target) {
+        MazeGrid grid = problem.getGrid();
+        Frontier frontier = context.frontier;
+        ClosedSet graveyard = context.graveyard;
+        Heuristic heuristic = context.heuristic(problem);
+        context.reset();
+        int h = heuristic.estimate(start, target);
+        if (h == Heuristic.UNREACHABLE) {
+            return null;
+        }
+        SearchTreeNode root = new SearchTreeNode(start, (byte) -1, null, 0, h);
+        context.putNode(root);
+        frontier.push(start, root.f);
+        context.pushes++;
+
+        while (!frontier.isEmpty()) {
+            SearchTreeNode current = context.getNode(frontier.pop());
+            if (isTarget(problem, current.cell, target)) {
+                return current;
+            }
+            if (context.expand(current)) {
+                return null;
+            }
+            graveyard.add(current.cell);
+
+            for (byte direction : directions(grid, current)) {
+                int cell = jump(problem, current.cell, direction, target);
+                if (cell < 0 || graveyard.contains(cell)) {
+                    continue;
+                }
+                // Every cell crossed before the jump point is uniform-cost
+                int steps = Math.abs(cell - current.cell) / stride(grid, direction);
+                int g = current.g + steps - 1 + problem.getCost(cell);
+                SearchTreeNode node = context.getNode(cell);
+                if (node == null) {
+                    h = heuristic.estimate(cell, target);
+                    if (h == Heuristic.UNREACHABLE) {
+                        continue;
+                    }
+                    node = new SearchTreeNode(cell, direction, current, g, h);
+                    context.putNode(node);
+                    context.pushes++;
+                } else if (node.reroute(direction, current, g)) {
+                    context.reopens++;
+                } else {
+                    continue;
+                }
+                frontier.push(cell, node.f);
+            }
+            context.sampleFrontier(frontier.size());
+        }
+        return null;
+    }
+
+    /**
+     * @return The directions to jump in from the given node: all four from a root
+     * or a mud tile, onward and sideways after a vertical move, and onward plus any
+     * forced vertical turns after a horizontal one. The arrays are shared and must
+     * not be modified.
+     */
+    private static byte[] directions (MazeGrid grid, SearchTreeNode node) {
+        if (node.parent == null || grid.tile(node.cell) == MazeGrid.MUD) {
+            return ALL;
+        }
+        byte d = node.action;
+        if (isVertical(d)) {
+            return AFTER_VERTICAL[d - MazeProblem.UP];
+        }
+        int behind = step(grid, node.cell, opposite(d));
+        int forced = (isForced(grid, node.cell, behind, MazeProblem.UP) ? 1 : 0)
+            | (isForced(grid, node.cell, behind, MazeProblem.DOWN) ? 2 : 0);
+        return AFTER_HORIZONTAL[d - MazeProblem.LEFT][forced];
+    }
+
+    /**
+     * Moves from the given cell in a straight line until reaching a jump point.
+     * Vertical jumps also probe horizontally from every cell they cross, and stop
+     * at any cell whose horizontal probe finds a jump point.
+     *
+     * @return The jump point's cell, or -1 if the line ends at a wall or the edge
+     */
+    private static int jump (MazeProblem problem, int from, byte direction, int target) {
+        MazeGrid grid = problem.getGrid();
+        boolean vertical = isVertical(direction);
+        byte side1 = vertical ? MazeProblem.LEFT : MazeProblem.UP;
+        byte side2 = vertical ? MazeProblem.RIGHT : MazeProblem.DOWN;
+        for (int cell = from;;) {
+            int next = step(grid, cell, direction);
+            if (next < 0 || grid.isWall(next)) {
+                return -1;
+            }
+            if (isTarget(problem, next, target) || grid.tile(next) == MazeGrid.MUD) {
+                return next;
+            }
+            if (isForced(grid, next, cell, side1) || isForced(grid, next, cell, side2)) {
+                return next;
+            }
+            if (vertical && (jump(problem, next, side1, target) >= 0 || jump(problem, next, side2, target) >= 0)) {
+                return next;
+            }
+            cell = next;
+        }
+    }
+
+    /**
+     * @return Whether or not the neighbor of cell on the given side is forced: open,
+     * but beside a cell behind that is not a uniform-cost tile
+     */
+    private static boolean isForced (MazeGrid grid, int cell, int behind, byte side) {
+        int neighbor = step(grid, cell, side);
+        return neighbor >= 0 && !grid.isWall(neighbor) && !isUniform(grid, step(grid, behind, side));
+    }
+
+    /**
+     * @return Whether or not the cell is in the maze and costs 1 to enter
+     */
+    private static boolean isUniform (MazeGrid grid, int cell) {
+        return cell >= 0 && !grid.isWall(cell) && grid.tile(cell) != MazeGrid.MUD;
+    }
+
+    private static boolean isTarget (MazeProblem problem, int cell, int target) {
+        return (target == MazeQuery.ANY_GOAL) ? problem.isGoal(cell) : cell == target;
+    }
+
+    /**
+     * @return The cell one move from the given cell in the given direction, or -1 if
+     * that move leaves the maze
+     */
+    private static int step (MazeGrid grid, int cell, byte direction) {
+        switch (direction) {
+        case MazeProblem.UP:    return grid.row(cell) > 0 ? cell - grid.cols : -1;
+        case MazeProblem.DOWN:  return grid.row(cell) < grid.rows - 1 ? cell + grid.cols : -1;
+        case MazeProblem.LEFT:  return grid.col(cell) > 0 ? cell - 1 : -1;
+        default:                return grid.col(cell) < grid.cols - 1 ? cell + 1 : -1;
+        }
+    }
+
+    private static int stride (MazeGrid grid, byte direction) {
+        return isVertical(direction) ? grid.cols : 1;
+    }
+
+    private static boolean isVertical (byte direction) {
+        return direction == MazeProblem.UP || direction == MazeProblem.DOWN;
+    }
+
+    private static byte opposite (byte direction) {
+        return (byte) (direction ^ 1);
+    }
+
+}
@@ -0,0 +1,310 @@
+package pathfinder.informed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Precomputed tables for the ALT (A*, Landmarks, Triangle inequality) heuristic.
+ * A few landmark cells are chosen by farthest-point selection, and the cost of
+ * the cheapest path from every cell to each landmark is stored. For any cell v,
+ * target t and landmark L, the triangle inequality bounds the cost from v to t
+ * from below by both d(v, L) - d(t, L) and d(L, t) - d(L, v), and the largest of
+ * these bounds is a consistent heuristic.
+ * <p>
+ * The tables depend only on the walls and mud of a maze, not on where its key
+ * and goals are, so one table serves every query and every goal layout over the
+ * same map. Tables can be saved to disk and loaded again instead of being rebuilt.
+ */
+public class Landmarks {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final int DEFAULT_COUNT = 8;
+    private static final int MAGIC = 0x4D5A4C4D, VERSION = 1; // "MZLM"
+    private final int rows, cols;
+    private final long layout;
+    private final int[] cells;
+    private final int[][] toLandmark;
+
+    private Landmarks (int rows, int cols, long layout, int[] cells, int[][] toLandmark) {
+        this.rows = rows;
+        this.cols = cols;
+        this.layout = layout;
+        this.cells = cells;
+        this.toLandmark = toLandmark;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Chooses DEFAULT_COUNT landmarks in the given maze and measures every cell's
+     * cost to each of them.
+     *
+     * @param problem The MazeProblem whose map is measured
+     * @return The Landmarks of the map
+     */
+    public static Landmarks select (MazeProblem problem) {
+        return select(problem, DEFAULT_COUNT);
+    }
+
+    /**
+     * Chooses landmarks by farthest-point selection: each one is the open cell
+     * farthest from all of those chosen before, starting from the cell farthest
+     * from the maze's initial cell, or from its first open tile if it has none.
+     * Only the region reachable from that cell is covered; cells outside of it
+     * fall back to the Manhattan distance. Each choice costs one Dijkstra search
+     * over the grid.
+     *
+     * @param problem The MazeProblem whose map is measured
+     * @param count The number of landmarks; more give tighter bounds, at the cost
+     * of one grid-sized table and one lookup per estimate each
+     * @return The Landmarks of the map
+     * @throws IllegalArgumentException If count is not positive
+     */
+    public static Landmarks select (MazeProblem problem, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Landmark count must be positive");
+        }
+        MazeGrid grid = problem.getGrid();
+        int size = grid.size();
+        int seed = problem.getInitialCell();
+        if (seed < 0) {
+            seed = 0;
+            while (seed < size && problem.isWall(seed)) {
+                seed++;
+            }
+        }
+        if (seed == size) {
+            return new Landmarks(grid.rows, grid.cols, layoutOf(grid), new int[0], new int[0][]);
+        }
+
+        // nearest[cell] is the cost from cell to its nearest landmark so far,
+        // UNREACHABLE outside of the seed's region
+        int[] nearest = DistanceFields.costsTo(problem, new int[] {seed});
+        int[] cells = new int[count];
+        int[][] toLandmark = new int[count][];
+        int chosen = 0;
+        for (; chosen < count; chosen++) {
+            int farthest = seed;
+            for (int cell = 0; cell < size; cell++) {
+                if (nearest[cell] != Heuristic.UNREACHABLE && nearest[cell] > nearest[farthest]) {
+                    farthest = cell;
+                }
+            }
+            if (chosen > 0 && nearest[farthest] == 0) {
+                break;
+            }
+            cells[chosen] = farthest;
+            toLandmark[chosen] = DistanceFields.costsTo(problem, new int[] {farthest});
+            if (chosen == 0) {
+                // The seed only picks the first landmark
+                nearest = toLandmark[0].clone();
+            } else {
+                for (int cell = 0; cell < size; cell++) {
+                    nearest[cell] = Math.min(nearest[cell], toLandmark[chosen][cell]);
+                }
+            }
+        }
+        return new Landmarks(grid.rows, grid.cols, layoutOf(grid),
+            Arrays.copyOf(cells, chosen), Arrays.copyOf(toLandmark, chosen));
+    }
+
+    /**
+     * @return The number of landmarks, which may be fewer than were asked for on
+     * maps with fewer open cells
+     */
+    public int count () {
+        return cells.length;
+    }
+
+    /**
+     * @param i Index of a landmark
+     * @return The cell index of the i-th landmark
+     */
+    public int cell (int i) {
+        return cells[i];
+    }
+
+    /**
+     * Binds these tables to the given maze, which must have the same dimensions,
+     * walls and mud as the one they were built from; its key and goals may lie
+     * anywhere. Pass the result to solves with {@link SolveOptions#withHeuristic(Heuristic)}.
+     *
+     * @param problem A MazeProblem over the map these tables were built from
+     * @return The ALT Heuristic of the given maze, never weaker than the Manhattan
+     * distance to a single target cell
+     * @throws IllegalArgumentException If the maze's map differs from the tables'
+     */
+    public Heuristic heuristic (MazeProblem problem) {
+        MazeGrid grid = problem.getGrid();
+        if (grid.rows != rows || grid.cols != cols || layoutOf(grid) != layout) {
+            throw new IllegalArgumentException("Landmarks were built for a different map");
+        }
+        return new Bound(problem);
+    }
+
+    /**
+     * Writes these tables to the given file, replacing it if it exists.
+     *
+     * @param file The path of the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void save (Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes these tables to the given stream, which is left open.
+     *
+     * @param stream The stream to write to
+     * @throws IOException If the stream cannot be written
+     */
+    public void write (OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeLong(layout);
+        out.writeInt(cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            out.writeInt(cells[i]);
+            for (int cost : toLandmark[i]) {
+                out.writeInt(cost);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads tables saved by {@link #save(Path)}.
+     *
+     * @param file The path of the file to read
+     * @return The Landmarks stored in the file
+     * @throws IOException If the file cannot be read or does not hold landmarks
+     */
+    public static Landmarks load (Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads tables written by {@link #write(OutputStream)} from the given stream,
+     * which is left open just past them; wrap unbuffered streams before reading.
+     *
+     * @param stream The stream to read from
+     * @return The Landmarks read from the stream
+     * @throws IOException If the stream cannot be read or does not hold landmarks
+     */
+    public static Landmarks read (InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a landmark table");
+        }
+        int rows = in.readInt(), cols = in.readInt();
+        long layout = in.readLong();
+        int count = in.readInt();
+        if (rows < 0 || cols < 0 || count < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt landmark table header");
+        }
+        int[] cells = new int[count];
+        int[][] toLandmark = new int[count][rows * cols];
+        for (int i = 0; i < count; i++) {
+            cells[i] = in.readInt();
+            for (int cell = 0; cell < toLandmark[i].length; cell++) {
+                toLandmark[i][cell] = in.readInt();
+            }
+        }
+        return new Landmarks(rows, cols, layout, cells, toLandmark);
+    }
+
+    /**
+     * @return A 64-bit FNV-1a hash of the walls and mud of the given grid; every
+     * other tile costs the same to cross, so it does not affect the tables
+     */
+    private static long layoutOf (MazeGrid grid) {
+        long hash = 0xcbf29ce484222325L;
+        for (int cell = 0; cell < grid.size(); cell++) {
+            byte tile = grid.tile(cell);
+            int kind = (tile == MazeGrid.WALL) ? 0 : (tile == MazeGrid.MUD) ? 2 : 1;
+            hash = (hash ^ kind) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+
+    // Bound Heuristic
+    // -----------------------------------------------------------------------------
+
+    /**
+     * ALT Heuristic of one maze. Moves pay for the tile they enter, so reversing a
+     * path swaps the cost of its first tile for that of its last, and the cost
+     * from a landmark L to a cell v is d(v, L) + cost(v) - cost(L).
+     */
+    private class Bound implements Heuristic {
+
+        private final MazeProblem problem;
+        // Per landmark: the largest goal-to-landmark and the smallest
+        // landmark-to-goal cost, over the goals that can reach it
+        private final int[] farthestGoal, nearestGoal;
+
+        Bound (MazeProblem problem) {
+            this.problem = problem;
+            this.farthestGoal = new int[cells.length];
+            this.nearestGoal = new int[cells.length];
+            int[] goals = problem.getGoalCells();
+            for (int i = 0; i < cells.length; i++) {
+                int farthest = -1, nearest = UNREACHABLE;
+                for (int cell : goals) {
+                    int cost = toLandmark[i][cell];
+                    if (cost != UNREACHABLE) {
+                        farthest = Math.max(farthest, cost);
+                        nearest = Math.min(nearest, cost + problem.getCost(cell) - problem.getCost(cells[i]));
+                    }
+                }
+                farthestGoal[i] = farthest;
+                nearestGoal[i] = nearest;
+            }
+        }
+
+        @Override
+        public int estimate (int cell, int target) {
+            // The Manhattan distance to the nearest goal loops over every goal
+            boolean anyGoal = (target == MazeQuery.ANY_GOAL);
+            int bound = anyGoal ? 0 : problem.manhattan(cell, target);
+            for (int i = 0; i < cells.length; i++) {
+                int[] to = toLandmark[i];
+                int fromCell = to[cell];
+                if (fromCell == UNREACHABLE) {
+                    continue;
+                }
+                int toLandmarkCost = anyGoal ? farthestGoal[i] : to[target];
+                if (toLandmarkCost == UNREACHABLE || toLandmarkCost < 0) {
+                    // The cell's region holds no target
+                    return UNREACHABLE;
+                }
+                int landmarkCost = problem.getCost(cells[i]);
+                int toCell = fromCell + problem.getCost(cell) - landmarkCost;
+                int fromLandmark = anyGoal ? nearestGoal[i]
+                    : to[target] + problem.getCost(target) - landmarkCost;
+                bound = Math.max(bound, Math.max(fromCell - toLandmarkCost, fromLandmark - toCell));
+            }
+            return bound;
+        }
+
+    }
+
+}
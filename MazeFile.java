@@ -0,0 +1,194 @@
+package pathfinder.informed;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary on-disk format for large mazes. A file holds a header of big-endian ints,
+ * <pre>
+ * magic "MZGD", version, rows, cols, initial cell, key cell, goal count, goal cells...
+ * </pre>
+ * with -1 for a missing initial cell or key, followed by the rows * cols tile codes
+ * of {@link MazeGrid}, one byte per cell in row-major order. Loading maps the file
+ * into memory instead of reading it, so it takes time proportional to the number of
+ * goals rather than cells, and the tiles stay off the Java heap; the operating
+ * system pages them in as searches touch them.
+ */
+public class MazeFile {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final int MAGIC = 0x4D5A4744, VERSION = 1; // "MZGD"
+    private static final int HEADER_INTS = 7;
+
+    private MazeFile () {}
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Maps the given maze file and wraps it in a MazeProblem whose grid reads the
+     * mapped tiles directly. The mapping is read-only, so the result cannot back a
+     * {@link DynamicMaze}.
+     *
+     * @param file The path of a file written by this class
+     * @return The MazeProblem stored in the file
+     * @throws IOException If the file cannot be read or does not hold a maze
+     */
+    public static MazeProblem load (Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Maze file too large to map");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a maze file");
+        }
+        int rows = buffer.getInt(8), cols = buffer.getInt(12);
+        int initial = buffer.getInt(16), key = buffer.getInt(20), count = buffer.getInt(24);
+        long header = (HEADER_INTS + (long) count) * 4;
+        if (rows < 0 || cols < 0 || count < 0 || header + (long) rows * cols != buffer.capacity()) {
+            throw new IOException("Corrupt maze file header");
+        }
+        int[] goals = new int[count];
+        for (int i = 0; i < count; i++) {
+            goals[i] = buffer.getInt((HEADER_INTS + i) * 4);
+        }
+
+        buffer.position((int) header);
+        ByteBuffer tiles = buffer.slice();
+        MazeGrid grid = new MazeGrid(rows, cols, tiles);
+        check(grid, initial, MazeGrid.INITIAL, true);
+        check(grid, key, MazeGrid.KEY, true);
+        for (int goal : goals) {
+            check(grid, goal, MazeGrid.GOAL, false);
+        }
+        return new MazeProblem(grid, initial, key, goals);
+    }
+
+    /**
+     * Writes the given maze to the given file, replacing it if it exists.
+     *
+     * @param problem The MazeProblem to store
+     * @param file The path of the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void save (MazeProblem problem, Path file) throws IOException {
+        MazeGrid grid = problem.getGrid();
+        int[] goals = problem.getGoalCells();
+        Arrays.sort(goals);
+        try (DataOutputStream out = open(file)) {
+            writeHeader(out, grid.rows, grid.cols, problem.getInitialCell(), problem.getKeyCell(), goals);
+            for (int cell = 0; cell < grid.size(); cell++) {
+                out.writeByte(grid.tile(cell));
+            }
+        }
+    }
+
+    /**
+     * Converts a maze in the text format of {@link MazeProblem#MazeProblem(String[])},
+     * one row per line, into a maze file. The text is streamed twice, once to find
+     * the dimensions, initial cell, key and goals for the header and once to copy
+     * the tiles, so the maze is never held in memory.
+     *
+     * @param text The path of the text maze to read
+     * @param file The path of the maze file to write, replaced if it exists
+     * @throws IOException If either file cannot be read or written
+     * @throws IllegalArgumentException If a line holds an illegal character, its
+     * length differs from the first line's, or the maze has more than one 'I'
+     */
+    public static void convert (Path text, Path file) throws IOException {
+        int rows = 0, cols = -1, initial = -1, key = -1, count = 0;
+        int[] goals = new int[16];
+        try (BufferedReader in = Files.newBufferedReader(text, StandardCharsets.US_ASCII)) {
+            for (String line; (line = in.readLine()) != null; rows++) {
+                if (cols < 0) {
+                    cols = line.length();
+                } else if (line.length() != cols) {
+                    throw new IllegalArgumentException("Line " + (rows + 1) + " has " + line.length()
+                        + " tiles, expected " + cols);
+                }
+                for (int col = 0; col < cols; col++) {
+                    int cell = rows * cols + col;
+                    switch (MazeGrid.requireTile(line.charAt(col), rows + 1, col + 1)) {
+                    case MazeGrid.INITIAL:
+                        if (initial >= 0) {
+                            throw new IllegalArgumentException("Line " + (rows + 1) + ", column " + (col + 1)
+                                + ": more than one initial state");
+                        }
+                        initial = cell;
+                        break;
+                    case MazeGrid.KEY:     key = cell; break;
+                    case MazeGrid.GOAL:
+                        if (count == goals.length) {
+                            goals = Arrays.copyOf(goals, count * 2);
+                        }
+                        goals[count++] = cell;
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            }
+        }
+        try (BufferedReader in = Files.newBufferedReader(text, StandardCharsets.US_ASCII);
+             DataOutputStream out = open(file)) {
+            writeHeader(out, rows, Math.max(cols, 0), initial, key, Arrays.copyOf(goals, count));
+            byte[] row = new byte[Math.max(cols, 0)];
+            for (int r = 0; r < rows; r++) {
+                String line = in.readLine();
+                for (int col = 0; col < cols; col++) {
+                    row[col] = MazeGrid.requireTile(line.charAt(col), r + 1, col + 1);
+                }
+                out.write(row);
+            }
+        }
+    }
+
+    private static DataOutputStream open (Path file) throws IOException {
+        OutputStream stream = Files.newOutputStream(file);
+        return new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    }
+
+    private static void writeHeader (DataOutputStream out, int rows, int cols, int initial, int key,
+            int[] goals) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(initial);
+        out.writeInt(key);
+        out.writeInt(goals.length);
+        for (int goal : goals) {
+            out.writeInt(goal);
+        }
+    }
+
+    /**
+     * @throws IOException If the header names a cell outside of the grid, or one
+     * whose tile does not match
+     */
+    private static void check (MazeGrid grid, int cell, byte tile, boolean optional) throws IOException {
+        if (optional && cell == -1) {
+            return;
+        }
+        if (cell < 0 || cell >= grid.size() || grid.tile(cell) != tile) {
+            throw new IOException("Corrupt maze file: cell " + cell + " is not tile " + tile);
+        }
+    }
+
+}
@@ -0,0 +1,695 @@
+package pathfinder.informed;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded generator of mazes in the text format of
+ * {@link MazeProblem#MazeProblem(String[])}, for load and scale tests. The same
+ * style, dimensions, options and seed always produce the same maze.
+ * <p>
+ * Mazes are produced one row at a time, so {@link #write(Path)} streams a maze to
+ * disk without ever holding it as a String[]; {@link MazeParser} or
+ * {@link MazeFile#convert(Path, Path)} read it back. What each style keeps in
+ * memory while streaming is noted on the style.
+ * <p>
+ * A SOLVABLE maze always has a path from I through K to at least one G. Its
+ * UNSOLVABLE twin is the same maze with one row walled off from edge to edge,
+ * between I above and K below.
+ */
+public class MazeGenerator {
+
+    /**
+     * Layout of a generated maze's walls.
+     */
+    public enum Style {
+        /**
+         * One-tile corridors carved by a recursive backtracker, with exactly one
+         * path between any two open tiles; keeps one byte per four tiles.
+         */
+        CORRIDORS,
+        /**
+         * Open caverns grown from random noise by a cellular automaton; keeps a
+         * few rows.
+         */
+        CAVES,
+        /**
+         * Rectangular rooms of random sizes joined by one-tile doors; keeps the
+         * room boundaries.
+         */
+        ROOMS,
+        /**
+         * An open field of scattered walls, mostly mud unless
+         * {@link MazeGenerator#setMud(double)} says otherwise; keeps nothing.
+         */
+        MUD
+    }
+
+    /**
+     * Whether a generated maze has a solution.
+     */
+    public enum Outcome { SOLVABLE, UNSOLVABLE }
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final int MIN_SIZE = 9, CAVE_STEPS = 4, MIN_ROOM = 3, MAX_ROOM = 8;
+    private static final double CAVE_FILL = 0.45, SCATTER = 0.2, EXTRA_DOORS = 0.5, MUD_STYLE = 0.4;
+    private static final int NOISE = 1, SCATTERED = 2, MUDDY = 3, DOOR_ACROSS = 4, DOOR_DOWN = 5, EXTRA = 6;
+    private static final byte WALL = 'X', OPEN = '.';
+
+    private final Style style;
+    private final int rows, cols;
+    private final long seed;
+    private double mud;
+    private int goals = 1;
+    private Outcome outcome = Outcome.SOLVABLE;
+
+    /**
+     * Constructs a new MazeGenerator of solvable mazes with one goal, and mud only
+     * in the MUD style.
+     *
+     * @param style The layout of the maze's walls
+     * @param rows The number of rows, including the surrounding walls
+     * @param cols The number of columns, including the surrounding walls
+     * @param seed The seed that every random choice is derived from
+     * @throws IllegalArgumentException If either dimension is less than 9, or the
+     * maze would have more than Integer.MAX_VALUE tiles
+     */
+    public MazeGenerator (Style style, int rows, int cols, long seed) {
+        if (rows < MIN_SIZE || cols < MIN_SIZE || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mazes must be at least " + MIN_SIZE + " x " + MIN_SIZE
+                + " and hold at most " + Integer.MAX_VALUE + " tiles");
+        }
+        this.style = style;
+        this.rows = rows;
+        this.cols = cols;
+        this.seed = seed;
+        this.mud = (style == Style.MUD) ? MUD_STYLE : 0;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @param mud The fraction of open tiles to turn into mud, from 0 to 1
+     * @throws IllegalArgumentException If the fraction is outside of [0, 1]
+     */
+    public void setMud (double mud) {
+        if (!(mud >= 0 && mud <= 1)) {
+            throw new IllegalArgumentException("Mud fraction " + mud + " is outside of [0, 1]");
+        }
+        this.mud = mud;
+    }
+
+    /**
+     * Sets the number of goals. In CAVES and MUD mazes only the first is sure to be
+     * reachable; the others land anywhere, possibly inside walls.
+     *
+     * @param goals The number of goals, at least 1 and at most a sixteenth of the
+     * maze's inner tiles
+     * @throws IllegalArgumentException If the number is out of range
+     */
+    public void setGoals (int goals) {
+        if (goals < 1 || goals > (long) (rows - 2) * (cols - 2) / 16) {
+            throw new IllegalArgumentException("Cannot place " + goals + " goals in a " + rows + " x " + cols
+                + " maze");
+        }
+        this.goals = goals;
+    }
+
+    /**
+     * @param outcome Whether generated mazes have a solution
+     */
+    public void setOutcome (Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * @return The maze, one String per row
+     */
+    public String[] generate () {
+        Plan plan = new Plan();
+        String[] maze = new String[rows];
+        for (int r = 0; r < rows; r++) {
+            maze[r] = new String(plan.next(), StandardCharsets.US_ASCII);
+        }
+        return maze;
+    }
+
+    /**
+     * Streams the maze to the given file, one row per line, replacing the file if
+     * it exists.
+     *
+     * @param file The path of the text maze to write
+     * @throws IOException If the file cannot be written
+     */
+    public void write (Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Streams the maze to the given stream, one row per line, without closing it.
+     *
+     * @param out The stream to write the maze's text to, in ASCII
+     * @throws IOException If the stream cannot be written
+     */
+    public void write (OutputStream out) throws IOException {
+        Plan plan = new Plan();
+        for (int r = 0; r < rows; r++) {
+            out.write(plan.next());
+            out.write('\n');
+        }
+    }
+
+    /**
+     * @return A number in [0, 1) that depends only on the seed and the arguments,
+     * from the SplitMix64 finalizer, so tiles can be rolled in any order
+     */
+    private double unit (int salt, int a, int b) {
+        long z = seed + salt * 0x9E3779B97F4A7C15L + (((long) a << 32) | (b & 0xFFFFFFFFL)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+
+    // Fixtures
+    // -----------------------------------------------------------------------------
+    // Fixed maze shapes for the unit tests and the benchmarks, built directly as
+    // Strings rather than by a Plan.
+
+    /**
+     * @param size Width and height of the maze, including the surrounding walls
+     * @param walls Fraction of the inner tiles that are walls
+     * @param mud Fraction of the inner tiles that are mud
+     * @param seed Seed for the tile layout
+     * @return A square maze of randomly scattered walls and mud, with I in the
+     * upper-left corner, K in the lower-right and G in the upper-right
+     */
+    static String[] mudField (int size, double walls, double mud, long seed) {
+        Random random = new Random(seed);
+        String[] maze = new String[size];
+        for (int r = 0; r < size; r++) {
+            char[] row = new char[size];
+            for (int c = 0; c < size; c++) {
+                double roll = random.nextDouble();
+                row[c] = (r == 0 || c == 0 || r == size - 1 || c == size - 1 || roll < walls) ? 'X'
+                       : (roll < walls + mud) ? 'M' : '.';
+            }
+            if (r == 1) {
+                row[1] = 'I';
+                row[size - 2] = 'G';
+            } else if (r == size - 2) {
+                row[size - 2] = 'K';
+            }
+            maze[r] = new String(row);
+        }
+        return maze;
+    }
+
+    /**
+     * @param maze A maze to copy
+     * @param goals Number of goals to add
+     * @param seed Seed for the goal positions
+     * @return A copy of the maze with its goals replaced by the given number of
+     * goals on randomly chosen open tiles
+     */
+    static String[] scatterGoals (String[] maze, int goals, long seed) {
+        Random random = new Random(seed);
+        char[][] tiles = new char[maze.length][];
+        for (int r = 0; r < maze.length; r++) {
+            tiles[r] = maze[r].replace('G', '.').toCharArray();
+        }
+        while (goals > 0) {
+            char[] row = tiles[random.nextInt(tiles.length)];
+            int c = random.nextInt(row.length);
+            if (row[c] == '.') {
+                row[c] = 'G';
+                goals--;
+            }
+        }
+        String[] result = new String[maze.length];
+        for (int r = 0; r < maze.length; r++) {
+            result[r] = new String(tiles[r]);
+        }
+        return result;
+    }
+
+    /**
+     * @param size Width and height of the maze, including the surrounding walls
+     * @return A square maze holding one corridor that spirals inward from the
+     * upper-left corner, with a wall between each loop and the next, I and G at
+     * its outer end and K at its center
+     */
+    static String[] spiral (int size) {
+        char[][] tiles = new char[size][size];
+        for (char[] row : tiles) {
+            Arrays.fill(row, 'X');
+        }
+        int[] dr = {0, 1, 0, -1}, dc = {1, 0, -1, 0};
+        int r = 1, c = 1, d = 0;
+        tiles[r][c] = '.';
+        for (boolean turned = false;;) {
+            int nr = r + dr[d], nc = c + dc[d], ar = nr + dr[d], ac = nc + dc[d];
+            boolean open = nr >= 1 && nc >= 1 && nr <= size - 2 && nc <= size - 2 && tiles[nr][nc] == 'X'
+                && (ar < 0 || ac < 0 || ar >= size || ac >= size || tiles[ar][ac] != '.');
+            if (open) {
+                r = nr;
+                c = nc;
+                tiles[r][c] = '.';
+                turned = false;
+            } else if (turned) {
+                break;
+            } else {
+                d = (d + 1) % 4;
+                turned = true;
+            }
+        }
+        tiles[1][1] = 'I';
+        tiles[1][2] = 'G';
+        tiles[r][c] = 'K';
+        String[] maze = new String[size];
+        for (int row = 0; row < size; row++) {
+            maze[row] = new String(tiles[row]);
+        }
+        return maze;
+    }
+
+    /**
+     * @param maze A maze to copy
+     * @return A copy of the maze with every tile beside its key walled up, like
+     * the unsolvable classwork mazes, so that a search exhausts all it can reach
+     */
+    static String[] sealKey (String[] maze) {
+        char[][] tiles = new char[maze.length][];
+        for (int r = 0; r < maze.length; r++) {
+            tiles[r] = maze[r].toCharArray();
+        }
+        for (int r = 0; r < tiles.length; r++) {
+            for (int c = 0; c < tiles[r].length; c++) {
+                if (maze[r].charAt(c) == 'K') {
+                    tiles[r - 1][c] = tiles[r + 1][c] = tiles[r][c - 1] = tiles[r][c + 1] = 'X';
+                }
+            }
+        }
+        String[] result = new String[maze.length];
+        for (int r = 0; r < maze.length; r++) {
+            result[r] = new String(tiles[r]);
+        }
+        return result;
+    }
+
+    /**
+     * One pass over the rows of the maze, with I, K and the goals already placed.
+     */
+    private class Plan {
+
+        private final Layout layout;
+        private final long[] marks;         // cell << 8 | tile, in cell order
+        private final byte[] row = new byte[cols];
+        private int r, mark;
+
+        Plan () {
+            Random random = new Random(seed);
+            switch (style) {
+            case CORRIDORS: layout = new Corridors(random); break;
+            case CAVES:     layout = new Caves(random); break;
+            case ROOMS:     layout = new Rooms(random); break;
+            default:        layout = new Spine(random); break;
+            }
+
+            // I and K lie on either side of the barrier in both outcomes, so that
+            // walling it off is all that separates the two
+            Set<Integer> taken = new HashSet<>();
+            marks = new long[goals + 2];
+            marks[0] = mark(taken, layout.openCell(random, 1, layout.barrier), 'I');
+            marks[1] = mark(taken, layout.openCell(random, layout.barrier + 1, rows - 1), 'K');
+            for (int i = 0; i < goals; i++) {
+                int cell;
+                do {
+                    cell = (i == 0) ? layout.openCell(random, 1, rows - 1) : layout.scatterCell(random);
+                } while (cell / cols == layout.barrier || taken.contains(cell));
+                marks[i + 2] = mark(taken, cell, 'G');
+            }
+            Arrays.sort(marks);
+        }
+
+        private long mark (Set<Integer> taken, int cell, char tile) {
+            taken.add(cell);
+            return ((long) cell << 8) | tile;
+        }
+
+        /**
+         * @return The next row of the maze, in a buffer that the following call
+         * overwrites
+         */
+        byte[] next () {
+            layout.fill(r, row);
+            if (outcome == Outcome.UNSOLVABLE && r == layout.barrier) {
+                Arrays.fill(row, WALL);
+            }
+            if (mud > 0) {
+                for (int c = 0; c < cols; c++) {
+                    if (row[c] == OPEN && unit(MUDDY, r, c) < mud) {
+                        row[c] = 'M';
+                    }
+                }
+            }
+            for (; mark < marks.length && (marks[mark] >>> 8) / cols == r; mark++) {
+                row[(int) ((marks[mark] >>> 8) % cols)] = (byte) marks[mark];
+            }
+            r++;
+            return row;
+        }
+    }
+
+    /**
+     * Walls and open tiles of one style, filled in row by row in order.
+     */
+    private abstract class Layout {
+
+        /**
+         * A row whose every tile is a wall or a door between the tiles above and
+         * below it, walled off entirely in UNSOLVABLE mazes.
+         */
+        int barrier;
+
+        /**
+         * Fills the given buffer with the tiles of row r, X or '.', called for
+         * each row in order.
+         */
+        abstract void fill (int r, byte[] row);
+
+        /**
+         * @return A random open cell in rows [top, bottom) from which every other
+         * cell this method returns can be reached, unless the barrier is walled
+         */
+        abstract int openCell (Random random, int top, int bottom);
+
+        /**
+         * @return A random cell for a goal after the first
+         */
+        int scatterCell (Random random) {
+            return openCell(random, 1, rows - 1);
+        }
+    }
+
+    /**
+     * Recursive-backtracker corridors. The maze is a lattice of cells at odd rows
+     * and columns, and each cell records the direction of the cell it was carved
+     * from, which is all the backtracker needs in place of a stack.
+     */
+    private class Corridors extends Layout {
+
+        private static final byte UP = 1, DOWN = 2, LEFT = 3, RIGHT = 4, ROOT = 5;
+        private final int height = (rows - 1) / 2, width = (cols - 1) / 2;
+        private final byte[] parents = new byte[height * width];
+
+        Corridors (Random random) {
+            barrier = 2 * (height / 2);
+            int cell = random.nextInt(parents.length);
+            parents[cell] = ROOT;
+            byte[] options = new byte[4];
+            while (true) {
+                int i = cell / width, j = cell % width, count = 0;
+                if (i > 0 && parents[cell - width] == 0) {
+                    options[count++] = UP;
+                }
+                if (i < height - 1 && parents[cell + width] == 0) {
+                    options[count++] = DOWN;
+                }
+                if (j > 0 && parents[cell - 1] == 0) {
+                    options[count++] = LEFT;
+                }
+                if (j < width - 1 && parents[cell + 1] == 0) {
+                    options[count++] = RIGHT;
+                }
+                if (count > 0) {
+                    byte move = options[random.nextInt(count)];
+                    cell = step(cell, move);
+                    parents[cell] = (move == UP) ? DOWN : (move == DOWN) ? UP : (move == LEFT) ? RIGHT : LEFT;
+                } else if (parents[cell] == ROOT) {
+                    break;
+                } else {
+                    cell = step(cell, parents[cell]);
+                }
+            }
+        }
+
+        private int step (int cell, byte move) {
+            switch (move) {
+            case UP:   return cell - width;
+            case DOWN: return cell + width;
+            case LEFT: return cell - 1;
+            default:   return cell + 1;
+            }
+        }
+
+        @Override
+        void fill (int r, byte[] row) {
+            Arrays.fill(row, WALL);
+            int i = (r - 1) / 2;
+            if (r % 2 == 1 && i < height) {
+                for (int j = 0; j < width; j++) {
+                    row[2 * j + 1] = OPEN;
+                    if (j + 1 < width && (parents[i * width + j] == RIGHT || parents[i * width + j + 1] == LEFT)) {
+                        row[2 * j + 2] = OPEN;
+                    }
+                }
+            } else if (r % 2 == 0 && r > 0 && i + 1 < height) {
+                for (int j = 0; j < width; j++) {
+                    if (parents[i * width + j] == DOWN || parents[(i + 1) * width + j] == UP) {
+                        row[2 * j + 1] = OPEN;
+                    }
+                }
+            }
+        }
+
+        @Override
+        int openCell (Random random, int top, int bottom) {
+            int low = top / 2, high = Math.min(height, bottom / 2);
+            int i = low + random.nextInt(high - low), j = random.nextInt(width);
+            return (2 * i + 1) * cols + 2 * j + 1;
+        }
+    }
+
+    /**
+     * Layouts whose open tiles need not connect, kept solvable by a staircase of
+     * open tiles from the upper-left corner to the lower-right, on which I, K and
+     * the first goal are placed. The staircase is a random monotone lattice path,
+     * so it runs through the maze rather than along its edges.
+     */
+    private class Spine extends Layout {
+
+        private final int[] ends = new int[rows];     // last spine column of each row
+
+        Spine (Random random) {
+            barrier = rows / 2;
+            int r = 1, c = 1, down = rows - 3, across = cols - 3;
+            while (down > 0 || across > 0) {
+                if (random.nextInt(down + across) < across) {
+                    c++;
+                    across--;
+                } else {
+                    ends[r++] = c;
+                    down--;
+                }
+            }
+            ends[r] = c;
+        }
+
+        private int start (int r) {
+            return (r == 1) ? 1 : ends[r - 1];
+        }
+
+        @Override
+        void fill (int r, byte[] row) {
+            for (int c = 0; c < cols; c++) {
+                boolean border = r == 0 || c == 0 || r == rows - 1 || c == cols - 1;
+                row[c] = (border || unit(SCATTERED, r, c) < SCATTER) ? WALL : OPEN;
+            }
+            carve(r, row);
+        }
+
+        void carve (int r, byte[] row) {
+            if (r > 0 && r < rows - 1) {
+                Arrays.fill(row, start(r), ends[r] + 1, OPEN);
+            }
+        }
+
+        @Override
+        int openCell (Random random, int top, int bottom) {
+            int r = top + random.nextInt(bottom - top);
+            return r * cols + start(r) + random.nextInt(ends[r] - start(r) + 1);
+        }
+
+        @Override
+        int scatterCell (Random random) {
+            return (1 + random.nextInt(rows - 2)) * cols + 1 + random.nextInt(cols - 2);
+        }
+    }
+
+    /**
+     * Cellular-automaton caves: noise of CAVE_FILL walls, then CAVE_STEPS rounds
+     * in which a tile becomes a wall if at least 5 of the 9 tiles around and
+     * including it are walls. Row r of a round needs rows r - 1 to r + 1 of the
+     * round before, so each round keeps only the last three rows it made.
+     */
+    private class Caves extends Spine {
+
+        private final byte[][][] rounds = new byte[CAVE_STEPS + 1][3][cols];
+        private final int[][] made = new int[CAVE_STEPS + 1][3];
+        private final byte[] solid = new byte[cols];
+
+        Caves (Random random) {
+            super(random);
+            Arrays.fill(solid, (byte) 1);
+            for (int[] round : made) {
+                Arrays.fill(round, -1);
+            }
+        }
+
+        @Override
+        void fill (int r, byte[] row) {
+            byte[] cave = cave(CAVE_STEPS, r);
+            for (int c = 0; c < cols; c++) {
+                row[c] = (cave[c] == 1) ? WALL : OPEN;
+            }
+            carve(r, row);
+        }
+
+        /**
+         * @return Row r after the given number of rounds, 1 for walls and 0 for
+         * open tiles
+         */
+        private byte[] cave (int round, int r) {
+            if (r < 0 || r >= rows) {
+                return solid;
+            }
+            byte[] row = rounds[round][r % 3];
+            if (made[round][r % 3] == r) {
+                return row;
+            }
+            made[round][r % 3] = r;
+            if (round == 0) {
+                for (int c = 0; c < cols; c++) {
+                    boolean border = r == 0 || c == 0 || r == rows - 1 || c == cols - 1;
+                    row[c] = (byte) ((border || unit(NOISE, r, c) < CAVE_FILL) ? 1 : 0);
+                }
+                return row;
+            }
+            byte[] above = cave(round - 1, r - 1), middle = cave(round - 1, r), below = cave(round - 1, r + 1);
+            for (int c = 0; c < cols; c++) {
+                int walls = 0;
+                for (int dc = -1; dc <= 1; dc++) {
+                    int n = c + dc;
+                    walls += (n < 0 || n >= cols) ? 3 : above[n] + middle[n] + below[n];
+                }
+                boolean border = r == 0 || c == 0 || r == rows - 1 || c == cols - 1;
+                row[c] = (byte) ((border || walls >= 5) ? 1 : 0);
+            }
+            return row;
+        }
+    }
+
+    /**
+     * Rooms between wall lines at random spacings. Every room has a door to the
+     * room on its right, and rooms in the first column of rooms a door to the room
+     * below, which connects them all; the other downward doors are open at random.
+     * Door positions are rolled from the seed when each row is filled.
+     */
+    private class Rooms extends Layout {
+
+        private final int[] rowLines, colLines;     // wall line positions, edges included
+        private final int[] rowBands, colBands;     // band index of each tile, or -1 on a line
+
+        Rooms (Random random) {
+            rowLines = lines(rows, random);
+            colLines = lines(cols, random);
+            rowBands = bands(rows, rowLines);
+            colBands = bands(cols, colLines);
+            barrier = rowLines[(rowLines.length - 1) / 2];
+        }
+
+        /**
+         * @return Positions of wall lines across a dimension of the given length,
+         * starting at 0 and ending at length - 1, with at least two bands of
+         * MIN_ROOM or more tiles between them
+         */
+        private int[] lines (int length, Random random) {
+            int[] lines = new int[length];
+            int count = 1;
+            for (int last = 0, room = length - 2; room >= 2 * MIN_ROOM + 1; room = length - 2 - last) {
+                int largest = Math.min(MAX_ROOM, room - MIN_ROOM - 1);
+                last += 1 + MIN_ROOM + random.nextInt(largest - MIN_ROOM + 1);
+                lines[count++] = last;
+            }
+            lines[count++] = length - 1;
+            return Arrays.copyOf(lines, count);
+        }
+
+        private int[] bands (int length, int[] lines) {
+            int[] bands = new int[length];
+            for (int band = 0; band + 1 < lines.length; band++) {
+                bands[lines[band]] = -1;
+                Arrays.fill(bands, lines[band] + 1, lines[band + 1], band);
+            }
+            bands[length - 1] = -1;
+            return bands;
+        }
+
+        /**
+         * @return The door's position within the band between the given lines
+         */
+        private int door (int salt, int i, int j, int[] lines, int band) {
+            int low = lines[band] + 1, size = lines[band + 1] - low;
+            return low + (int) (unit(salt, i, j) * size);
+        }
+
+        @Override
+        void fill (int r, byte[] row) {
+            Arrays.fill(row, WALL);
+            if (rowBands[r] >= 0) {
+                int i = rowBands[r];
+                for (int j = 0; j + 1 < colLines.length; j++) {
+                    Arrays.fill(row, colLines[j] + 1, colLines[j + 1], OPEN);
+                    if (j + 2 < colLines.length && door(DOOR_ACROSS, i, j, rowLines, i) == r) {
+                        row[colLines[j + 1]] = OPEN;
+                    }
+                }
+            } else if (r > 0 && r < rows - 1) {
+                int i = Arrays.binarySearch(rowLines, r);
+                for (int j = 0; j + 1 < colLines.length; j++) {
+                    if (j == 0 || unit(EXTRA, i, j) < EXTRA_DOORS) {
+                        row[door(DOOR_DOWN, i, j, colLines, j)] = OPEN;
+                    }
+                }
+            }
+        }
+
+        @Override
+        int openCell (Random random, int top, int bottom) {
+            int r, c;
+            do {
+                r = top + random.nextInt(bottom - top);
+            } while (rowBands[r] < 0);
+            do {
+                c = 1 + random.nextInt(cols - 2);
+            } while (colBands[c] < 0);
+            return r * cols + c;
+        }
+    }
+
+}
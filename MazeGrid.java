@@ -0,0 +1,164 @@
+package pathfinder.informed;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact, row-major representation of a maze's tiles. Every cell is stored as
+ * a single byte tile code at the cell index <code>row * cols + col</code>, so that
+ * the search hot paths read from one flat buffer instead of a String per row.
+ * The buffer is a heap array for mazes parsed from text, or a file mapped by
+ * {@link MazeFile} for mazes loaded from disk, which then live off-heap.
+ */
+public class MazeGrid {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final byte WALL = 0, OPEN = 1, MUD = 2, GOAL = 3, KEY = 4, INITIAL = 5;
+    public final int rows, cols;
+    private final ByteBuffer tiles;
+
+    /**
+     * Constructs a new MazeGrid of the given dimensions in which every cell
+     * starts out as a WALL; the owner is responsible for filling in the tiles.
+     *
+     * @param rows Number of rows in the maze
+     * @param cols Number of columns in the maze
+     */
+    MazeGrid (int rows, int cols) {
+        this(rows, cols, ByteBuffer.wrap(new byte[rows * cols]));
+    }
+
+    /**
+     * Constructs a new MazeGrid over the given tile codes, which it reads from
+     * absolute positions rows * cols + col and never copies.
+     *
+     * @param rows Number of rows in the maze
+     * @param cols Number of columns in the maze
+     * @param tiles A buffer of exactly rows * cols tile codes
+     */
+    MazeGrid (int rows, int cols, ByteBuffer tiles) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tiles = tiles;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Returns the tile code of the given maze character, of the format:<br>
+     * 'X': WALL, '.': OPEN, 'M': MUD, 'G': GOAL, 'K': KEY, 'I': INITIAL
+     *
+     * @param c A character from a maze String
+     * @return The tile code for c, or -1 if c is not a legal maze entity
+     */
+    public static byte tileOf (char c) {
+        switch (c) {
+        case 'X': return WALL;
+        case '.': return OPEN;
+        case 'M': return MUD;
+        case 'G': return GOAL;
+        case 'K': return KEY;
+        case 'I': return INITIAL;
+        default:  return -1;
+        }
+    }
+
+    /**
+     * Returns the tile code of the given maze character like {@link #tileOf(char)},
+     * but rejects one that is not a legal maze entity. Every reader of the text
+     * format validates its tiles here.
+     *
+     * @param c A character from a maze's text
+     * @param line The line of the character, counted from 1
+     * @param column The column of the character, counted from 1
+     * @return The tile code for c
+     * @throws IllegalArgumentException If c is not a legal maze entity, naming its
+     * line and column
+     */
+    static byte requireTile (char c, int line, int column) {
+        byte tile = tileOf(c);
+        if (tile < 0) {
+            throw new IllegalArgumentException("Maze formatted invalidly at line " + line + ", column "
+                + column + ": illegal tile '" + c + "'");
+        }
+        return tile;
+    }
+
+    /**
+     * @param col Column of the cell
+     * @param row Row of the cell
+     * @return The cell index of (col, row), i.e., row * cols + col
+     */
+    public int index (int col, int row) {
+        return row * cols + col;
+    }
+
+    /**
+     * @param cell A cell index in this grid
+     * @return The column of the given cell
+     */
+    public int col (int cell) {
+        return cell % cols;
+    }
+
+    /**
+     * @param cell A cell index in this grid
+     * @return The row of the given cell
+     */
+    public int row (int cell) {
+        return cell / cols;
+    }
+
+    /**
+     * @return The number of cells in this grid, i.e., rows * cols
+     */
+    public int size () {
+        return tiles.capacity();
+    }
+
+    /**
+     * @param col Column to test
+     * @param row Row to test
+     * @return Whether or not (col, row) lies within the bounds of this grid
+     */
+    public boolean inBounds (int col, int row) {
+        return col >= 0 && col < cols && row >= 0 && row < rows;
+    }
+
+    /**
+     * @param cell A cell index in this grid
+     * @return The tile code stored at the given cell
+     */
+    public byte tile (int cell) {
+        return tiles.get(cell);
+    }
+
+    /**
+     * @param cell A cell index in this grid
+     * @return Whether or not the given cell is a wall
+     */
+    public boolean isWall (int cell) {
+        return tiles.get(cell) == WALL;
+    }
+
+    /**
+     * @param cell A cell index in this grid
+     * @return The cost of moving onto the given cell: 3 for mud, 1 otherwise
+     */
+    public int cost (int cell) {
+        return tiles.get(cell) == MUD ? 3 : 1;
+    }
+
+    /**
+     * [Mutator] Sets the tile code of the given cell.
+     *
+     * @param cell A cell index in this grid
+     * @param tile The tile code to store at the cell
+     */
+    void set (int cell, byte tile) {
+        tiles.put(cell, tile);
+    }
+
+}
@@ -0,0 +1,222 @@
+package pathfinder.informed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming parser for mazes in the text format of
+ * {@link MazeProblem#MazeProblem(String[])}, one row per line, that packs tiles
+ * straight into a {@link MazeGrid} without building a String per row. Lines end
+ * in "\n" or "\r\n", and the last one may end without either. Empty lines at the
+ * end of the text are ignored.
+ * <p>
+ * A file, or any other SeekableByteChannel, is parsed straight into a grid sized
+ * from the bytes left in it, which the maze's line breaks make slightly larger
+ * than the maze, so the peak memory of the parse is that grid and a read buffer.
+ * A stream of unknown length is gathered in fixed-size blocks instead, and the
+ * blocks are copied into the grid once the last row has been read: a maze of more
+ * than one block then briefly takes about twice its size.
+ */
+public class MazeParser {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private static final int BLOCK = 1 << 20, READ_BUFFER = 1 << 16, MAX_ARRAY = Integer.MAX_VALUE - 8;
+    private final List<byte[]> blocks = new ArrayList<>();
+    private byte[] block;
+    private int used;                   // tiles written to the current block
+    private long cells;                 // tiles written in all
+    private int line = 1, col, cols = -1, initial = -1, key = -1, goalCount;
+    private int blankLine = -1;         // first empty line since the last row, or -1
+    private int[] goals = new int[16];
+
+    private MazeParser (int capacity) {
+        block = new byte[capacity];
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Parses a maze from the given file.
+     *
+     * @param file The path of the maze's text, in ASCII
+     * @return The MazeProblem of the maze
+     * @throws IOException If the file cannot be read
+     * @throws IllegalArgumentException If a character is not a maze entity, a
+     * line's length differs from the first line's, or the maze has more than one
+     * 'I', naming the line and column
+     */
+    public static MazeProblem parse (Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return parse(channel);
+        }
+    }
+
+    /**
+     * Parses a maze from the given stream, which is read to its end but not closed.
+     *
+     * @param in The stream of the maze's text, in ASCII
+     * @return The MazeProblem of the maze
+     * @throws IOException If the stream cannot be read
+     * @throws IllegalArgumentException If a character is not a maze entity, a
+     * line's length differs from the first line's, or the maze has more than one
+     * 'I', naming the line and column
+     */
+    public static MazeProblem parse (InputStream in) throws IOException {
+        return parse(Channels.newChannel(in));
+    }
+
+    /**
+     * Parses a maze from the given channel, which is read to its end but not closed.
+     * A SeekableByteChannel is parsed into a grid sized from its remaining bytes.
+     *
+     * @param channel The channel of the maze's text, in ASCII
+     * @return The MazeProblem of the maze
+     * @throws IOException If the channel cannot be read
+     * @throws IllegalArgumentException If a character is not a maze entity, a
+     * line's length differs from the first line's, or the maze has more than one
+     * 'I', naming the line and column
+     */
+    public static MazeProblem parse (ReadableByteChannel channel) throws IOException {
+        int capacity = BLOCK;
+        if (channel instanceof SeekableByteChannel) {
+            SeekableByteChannel file = (SeekableByteChannel) channel;
+            capacity = (int) Math.min(Math.max(file.size() - file.position(), 0), MAX_ARRAY);
+        }
+        MazeParser parser = new MazeParser(capacity);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        boolean carriageReturn = false;
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (carriageReturn && b != '\n') {
+                    throw parser.error("stray carriage return");
+                }
+                carriageReturn = (b == '\r');
+                if (b == '\n') {
+                    parser.endLine();
+                } else if (!carriageReturn) {
+                    parser.add(b);
+                }
+            }
+            buffer.clear();
+        }
+        if (carriageReturn) {
+            throw parser.error("stray carriage return");
+        }
+        if (parser.col > 0) {
+            parser.endLine();
+        }
+        return parser.build();
+    }
+
+    /**
+     * Adds the tile of the given character to the current line.
+     */
+    private void add (byte b) {
+        if (blankLine >= 0) {
+            throw error(blankLine, 0, "line shorter than the first line's " + cols + " tiles");
+        }
+        byte tile = MazeGrid.requireTile((char) (b & 0xFF), line, col + 1);
+        if (cols >= 0 && col == cols) {
+            throw error("line longer than the first line's " + cols + " tiles");
+        }
+        if (cells == Integer.MAX_VALUE) {
+            throw error("maze too large");
+        }
+        int cell = (int) cells;
+        switch (tile) {
+        case MazeGrid.INITIAL:
+            if (initial >= 0) {
+                throw error("more than one initial state");
+            }
+            initial = cell;
+            break;
+        case MazeGrid.KEY:     key = cell; break;
+        case MazeGrid.GOAL:
+            if (goalCount == goals.length) {
+                goals = Arrays.copyOf(goals, goalCount * 2);
+            }
+            goals[goalCount++] = cell;
+            break;
+        default:
+            break;
+        }
+        if (used == block.length) {
+            blocks.add(block);
+            block = new byte[BLOCK];
+            used = 0;
+        }
+        block[used++] = tile;
+        cells++;
+        col++;
+    }
+
+    /**
+     * Ends the current line, which fixes the width of the maze if it is the first.
+     * An empty line after the first is only an error once a row follows it.
+     */
+    private void endLine () {
+        if (col == 0 && cols > 0) {
+            if (blankLine < 0) {
+                blankLine = line;
+            }
+        } else if (cols < 0) {
+            cols = col;
+        } else if (col != cols) {
+            throw error("line shorter than the first line's " + cols + " tiles");
+        }
+        line++;
+        col = 0;
+    }
+
+    /**
+     * Wraps the tiles in a grid: the current block itself if it holds all of them
+     * and is at least half full, or else a copy of every gathered block, each
+     * dropped once copied.
+     */
+    private MazeProblem build () {
+        int size = (int) cells, width = Math.max(cols, 0);
+        ByteBuffer tiles;
+        if (blocks.isEmpty() && size >= block.length / 2) {
+            tiles = ByteBuffer.wrap(block, 0, size).slice();
+        } else {
+            tiles = ByteBuffer.allocate(size);
+            blocks.add(block);
+            for (int i = 0; i < blocks.size(); i++) {
+                byte[] gathered = blocks.get(i);
+                tiles.put(gathered, 0, Math.min(gathered.length, size - tiles.position()));
+                blocks.set(i, null);
+            }
+            tiles.clear();
+        }
+        block = null;
+        int rows = (width == 0) ? 0 : size / width;
+        return new MazeProblem(new MazeGrid(rows, width, tiles), initial, key, Arrays.copyOf(goals, goalCount));
+    }
+
+    /**
+     * @return An exception naming the current line and column and the given problem
+     */
+    private IllegalArgumentException error (String problem) {
+        return error(line, col, problem);
+    }
+
+    private static IllegalArgumentException error (int line, int col, String problem) {
+        return new IllegalArgumentException("Maze formatted invalidly at line " + line + ", column "
+            + (col + 1) + ": " + problem);
+    }
+
+}
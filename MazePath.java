@@ -0,0 +1,133 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, immutable sequence of moves through a maze, stored as one action code
+ * (MazeProblem.UP, DOWN, LEFT or RIGHT) per byte. The ArrayList of String actions
+ * used by the original API is only built when {@link #toList()} is called.
+ */
+public class MazePath {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    private final byte[] moves;
+
+    /**
+     * Constructs a new MazePath that takes ownership of the given action codes.
+     *
+     * @param moves Action codes in the order in which they are taken
+     */
+    MazePath (byte[] moves) {
+        this.moves = moves;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Converts a list of String actions into a MazePath.
+     *
+     * @param actions A list of actions of the format: ["U", "D", "D", "L", ...]
+     * @return The MazePath taking the same actions
+     * @throws IllegalArgumentException If any of the actions is not U, D, L or R
+     */
+    public static MazePath of (List<String> actions) {
+        byte[] moves = new byte[actions.size()];
+        int i = 0;
+        for (String action : actions) {
+            moves[i++] = codeOf(action);
+        }
+        return new MazePath(moves);
+    }
+
+    /**
+     * Collects the actions that led to the given node by walking up to the root of
+     * its Search Tree once, then reversing them in place. A node that lies several
+     * cells from its parent in a straight line, as after a jump, contributes one
+     * move per cell crossed.
+     *
+     * @param node The SearchTreeNode at the end of the path
+     * @param grid The MazeGrid the tree was searched over
+     * @return The MazePath from the root of node's tree to node
+     */
+    static MazePath of (SearchTreeNode node, MazeGrid grid) {
+        byte[] moves = new byte[16];
+        int length = 0;
+        for (SearchTreeNode p = node; p.parent != null; p = p.parent) {
+            int steps = Math.abs(grid.row(p.cell) - grid.row(p.parent.cell))
+                + Math.abs(grid.col(p.cell) - grid.col(p.parent.cell));
+            if (length + steps > moves.length) {
+                moves = Arrays.copyOf(moves, Math.max(length * 2, length + steps));
+            }
+            for (int i = 0; i < steps; i++) {
+                moves[length++] = p.action;
+            }
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            byte swap = moves[i];
+            moves[i] = moves[j];
+            moves[j] = swap;
+        }
+        return new MazePath(Arrays.copyOf(moves, length));
+    }
+
+    /**
+     * @return The number of moves in this path
+     */
+    public int length () {
+        return moves.length;
+    }
+
+    /**
+     * @param i Index of a move in this path
+     * @return The action code of the i-th move
+     */
+    public byte move (int i) {
+        return moves[i];
+    }
+
+    /**
+     * @param next The path to take after this one
+     * @return A new MazePath of this path's moves followed by next's
+     */
+    public MazePath append (MazePath next) {
+        byte[] result = Arrays.copyOf(moves, moves.length + next.moves.length);
+        System.arraycopy(next.moves, 0, result, moves.length, next.moves.length);
+        return new MazePath(result);
+    }
+
+    /**
+     * @return A new ArrayList of the String actions in this path, of the format:
+     * ["R", "R", "L", ...]
+     */
+    public ArrayList<String> toList () {
+        ArrayList<String> result = new ArrayList<>(moves.length);
+        for (byte move : moves) {
+            result.add(MazeProblem.ACTIONS[move]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString () {
+        return toList().toString();
+    }
+
+    /**
+     * @param action A String action, one of "U", "D", "L", "R"
+     * @return The action code of the given action
+     */
+    private static byte codeOf (String action) {
+        for (byte code = 0; code < MazeProblem.ACTIONS.length; code++) {
+            if (MazeProblem.ACTIONS[code].equals(action)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown action: " + action);
+    }
+
+}
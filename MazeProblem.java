@@ -1,29 +1,37 @@
 package pathfinder.informed;
 
 import java.util.Map;
-import java.util.Set;
-import java.util.Map.Entry;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Specifies the Maze Grid pathfinding problem including the actions, transitions,
  * goal test, and solution test. Can be fed as an input to a Search algorithm to
- * find and then test a solution.
+ * find and then test a solution.<br>
+ * A MazeProblem is never modified after construction, apart from the tiles a
+ * {@link DynamicMaze} changes; all per-search state, including any heuristic
+ * other than the Manhattan distance, lives in a {@link SearchContext} or the
+ * {@link SolveOptions} of a solve, so one MazeProblem can be shared by any number
+ * of concurrent searches between such changes.
  */
 public class MazeProblem {
 
     // Fields
     // -----------------------------------------------------------------------------
-    private String[] maze;
-    private int rows, cols;
-    private boolean foundKey;
+    private final MazeGrid grid;
+    private final int rows, cols;
+    private final int initialCell, keyCell;
     public final MazeState INITIAL_STATE, KEY_STATE;
-    private Map<String, MazeState> goals = new HashMap<>();
-    private Map<String, MazeState> mudTiles = new HashMap<>();
-    private Set<MazeState> graveyard = new HashSet<>();
+    private final Map<String, MazeState> goals = new HashMap<>();
+    private final int[] goalCells;
     private static final Map<String, MazeState> TRANS_MAP = createTransitions();
+    public static final byte UP = 0, DOWN = 1, LEFT = 2, RIGHT = 3;
+    static final String[] ACTIONS = {"U", "D", "L", "R"};
+    private static final int[] COL_OFFSETS = {0, 0, -1, 1}, ROW_OFFSETS = {-1, 1, 0, 0};
+    private final Heuristic manhattan = Heuristic.manhattan(this);
 
     /**
      * @return Creates the transition map that maps String actions to
@@ -61,41 +69,56 @@ public class MazeProblem {
      *     "XXXXXXX"
      * };
      * </pre>
+     * The maze is packed into a {@link MazeGrid} once here, and every other
+     * method reads its tiles from that grid. Large mazes are packed in bands of
+     * rows in parallel. A maze with more than one 'K' takes the last one, in
+     * row-major order, as its key.
+     * @throws IllegalArgumentException If a character is not a maze entity, a row's
+     * length differs from the first row's, or the maze has more than one 'I'
      */
     MazeProblem (String[] maze) {
-        this.maze = maze;
         this.rows = maze.length;
         this.cols = (rows == 0) ? 0 : maze[0].length();
-        MazeState foundInitial = null, foundGoal = null, foundKey = null, foundMud = null;;
-
-        // Find the initial and goal state in the given maze, and then
-        // store in fields once found
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                switch (maze[row].charAt(col)) {
-                case 'I':
-                    foundInitial = new MazeState(col, row); break;
-                case 'G':
-                    foundGoal = new MazeState(col, row);
-                    goals.put(foundGoal.toString(), foundGoal);
-                    break;
-                case 'K':
-                    foundKey = new MazeState(col, row); break;
-                case '.':
-                case 'M':
-                  foundMud = new MazeState(col, row);
-                  mudTiles.put(foundMud.toString(), foundMud);
-                  break;
-                case 'X':
-                    break;
-                default:
-                    throw new IllegalArgumentException("Maze formatted invalidly");
-                }
-            }
+        this.grid = new MazeGrid(rows, cols);
+        Scan scan = new Scan(maze, grid, 0, rows);
+        if ((long) rows * cols < Scan.BAND_CELLS) {
+            scan.compute();
+        } else {
+            scan.invoke();
+        }
+        this.goalCells = Arrays.copyOf(scan.goals, scan.goalCount);
+        for (int cell : goalCells) {
+            MazeState goal = stateOf(cell);
+            goals.put(goal.toString(), goal);
+        }
+        this.initialCell = scan.initial;
+        this.keyCell = scan.key;
+        INITIAL_STATE = (initialCell < 0) ? null : stateOf(initialCell);
+        KEY_STATE = (keyCell < 0) ? null : stateOf(keyCell);
+    }
+
+    /**
+     * Constructs a new MazeProblem over an already packed grid, such as one mapped
+     * from disk by {@link MazeFile}, whose tiles are not scanned again.
+     *
+     * @param grid The tiles of the maze
+     * @param initialCell The cell index of the initial state, or -1 if none
+     * @param keyCell The cell index of the key, or -1 if none
+     * @param goalCells The cell indices of every goal tile
+     */
+    MazeProblem (MazeGrid grid, int initialCell, int keyCell, int[] goalCells) {
+        this.grid = grid;
+        this.rows = grid.rows;
+        this.cols = grid.cols;
+        this.goalCells = goalCells;
+        for (int cell : goalCells) {
+            MazeState goal = stateOf(cell);
+            goals.put(goal.toString(), goal);
         }
-        INITIAL_STATE = foundInitial;
-        KEY_STATE = foundKey;
-        this.foundKey = (KEY_STATE == null) ? true : false;
+        INITIAL_STATE = (initialCell < 0) ? null : stateOf(initialCell);
+        KEY_STATE = (keyCell < 0) ? null : stateOf(keyCell);
+        this.initialCell = initialCell;
+        this.keyCell = keyCell;
     }
 
 
@@ -103,13 +126,24 @@ public class MazeProblem {
     // -----------------------------------------------------------------------------
 
     /**
-     * Returns whether or not the given state is a Goal state.
+     * Returns whether or not the given state is a Goal state, from the tile stored
+     * in the grid at its cell.
      *
      * @param state A MazeState (col, row) to test
      * @return Boolean of whether or not the given state is a Goal.
      */
     public boolean isGoal (MazeState state) {
-        return goals.containsValue(state);
+        return grid.inBounds(state.col, state.row) && isGoal(indexOf(state));
+    }
+
+    /**
+     * Returns whether or not the given cell is a Goal tile.
+     *
+     * @param cell A cell index (row * cols + col) to test
+     * @return Boolean of whether or not the given cell is a Goal.
+     */
+    public boolean isGoal (int cell) {
+        return grid.tile(cell) == MazeGrid.GOAL;
     }
 
     /**
@@ -136,10 +170,8 @@ public class MazeProblem {
 
             // If the given state *is* a valid transition (i.e., within
             // map bounds and no wall at the position)...
-            if (newState.row >= 0 && newState.row < rows &&
-                newState.col >= 0 && newState.col < cols &&
-                maze[newState.row].charAt(newState.col) != 'X' &&
-                !graveyard.contains(newState)) {
+            if (grid.inBounds(newState.col, newState.row) &&
+                !grid.isWall(grid.index(newState.col, newState.row))) {
                 // ...then add it to the result!
                 result.put(action.getKey(), newState);
             }
@@ -147,6 +179,38 @@ public class MazeProblem {
         return result;
     }
 
+    /**
+     * Allocation-free counterpart of {@link #getTransitions(MazeState)}: writes the
+     * cells that can be reached from the given cell, and the action codes (UP,
+     * DOWN, LEFT, RIGHT) that reach them, into the given buffers. Only bounds and
+     * walls are checked; skipping already-expanded cells is up to the caller.
+     *
+     * @param cell A cell index (row * cols + col) representing the current state
+     * @param cells Buffer of at least 4 ints that receives the neighboring cells
+     * @param actions Buffer of at least 4 bytes that receives the matching actions
+     * @return The number of transitions written to the front of the buffers
+     */
+    public int getTransitions (int cell, int[] cells, byte[] actions) {
+        int col = grid.col(cell), row = grid.row(cell), count = 0;
+        if (row > 0 && !grid.isWall(cell - cols)) {
+            cells[count] = cell - cols;
+            actions[count++] = UP;
+        }
+        if (row < rows - 1 && !grid.isWall(cell + cols)) {
+            cells[count] = cell + cols;
+            actions[count++] = DOWN;
+        }
+        if (col > 0 && !grid.isWall(cell - 1)) {
+            cells[count] = cell - 1;
+            actions[count++] = LEFT;
+        }
+        if (col < cols - 1 && !grid.isWall(cell + 1)) {
+            cells[count] = cell + 1;
+            actions[count++] = RIGHT;
+        }
+        return count;
+    }
+
     /**
     * Given a possibleSoln, tests to ensure that it is indeed a solution to this MazeProblem,
     * as well as returning the cost.
@@ -158,30 +222,68 @@ public class MazeProblem {
     * cost will be an integer denoting the cost of the given solution to test optimality
     */
    public int[] testSolution (ArrayList<String> possibleSoln) {
-       // Update the "moving state" that begins at the start and is modified by the transitions
-       MazeState movingState = new MazeState(INITIAL_STATE.col, INITIAL_STATE.row);
-       int cost = 0;
-       boolean hasKey = false;
-       int[] result = {0, -1};
-
-       // For each action, modify the movingState, and then check that we have landed in
-       // a legal position in this maze
-       for (String action : possibleSoln) {
-           MazeState actionMod = TRANS_MAP.get(action);
-           movingState.add(actionMod);
-           switch (maze[movingState.row].charAt(movingState.col)) {
-           case 'X':
-               return result;
-           case 'K':
-               hasKey = true; break;
-           }
-           cost += getCost(movingState);
-       }
-       result[0] = isGoal(movingState) && hasKey ? 1 : 0;
-       result[1] = cost;
-       return result;
+       return testSolution(MazePath.of(possibleSoln));
    }
 
+    /**
+     * Compact counterpart of {@link #testSolution(ArrayList)} that walks the action
+     * codes of the given path directly.
+     *
+     * @param possibleSoln A possible solution to test
+     * @return A 2-element array of ints of the format [isSoln, cost]; see
+     * {@link #testSolution(ArrayList)}
+     */
+    public int[] testSolution (MazePath possibleSoln) {
+        return testSolution(possibleSoln, initialCell, -1, MazeQuery.ANY_GOAL);
+    }
+
+    /**
+     * Tests that the given path solves the given query rather than this maze's own
+     * puzzle: it must start at the query's initial cell, pass through its key cell,
+     * and end at its goal, with the same costs as {@link #testSolution(ArrayList)}.
+     *
+     * @param possibleSoln A possible solution to test
+     * @param query The MazeQuery the path should solve
+     * @return A 2-element array of ints of the format [isSoln, cost]
+     */
+    public int[] testSolution (MazePath possibleSoln, MazeQuery query) {
+        return testSolution(possibleSoln, query.initial, query.key, query.goal);
+    }
+
+    /**
+     * Walks the given path from the start cell, checking that each move lands in a
+     * legal position in this maze.
+     *
+     * @param key The cell that must be visited, or -1 for any 'K' tile
+     * @param goal The cell that must be reached, or ANY_GOAL for any 'G' tile
+     */
+    private int[] testSolution (MazePath possibleSoln, int start, int key, int goal) {
+        int cell = start, col = grid.col(cell), row = grid.row(cell);
+        int cost = 0;
+        boolean hasKey = false;
+        int[] result = {0, -1};
+
+        for (int i = 0; i < possibleSoln.length(); i++) {
+            byte move = possibleSoln.move(i);
+            col += COL_OFFSETS[move];
+            row += ROW_OFFSETS[move];
+            if (!grid.inBounds(col, row)) {
+                return result;
+            }
+            cell = grid.index(col, row);
+            byte tile = grid.tile(cell);
+            if (tile == MazeGrid.WALL) {
+                return result;
+            }
+            hasKey |= (key < 0) ? tile == MazeGrid.KEY : cell == key;
+            cost += grid.cost(cell);
+        }
+        boolean atGoal = (goal == MazeQuery.ANY_GOAL) ? isGoal(cell) : cell == goal;
+        result[0] = atGoal && hasKey ? 1 : 0;
+        result[1] = cost;
+        return result;
+    }
+
     /**
      * Calculates the cost of a single move depending on if there is mud or not.
      *
@@ -191,63 +293,131 @@ public class MazeProblem {
      * on what the tile being landed on is.
      */
     public int getCost(MazeState state){
-      if (maze[state.row].charAt(state.col) == 'M') {
-        return 3;
-      }
-      else {
-        return 1;
-      }
+      return grid.cost(grid.index(state.col, state.row));
+    }
+
+    /**
+     * Calculates the cost of a single move onto the given cell.
+     *
+     * @param cell A cell index (row * cols + col) in this maze
+     * @return 3 if the cell is mud, 1 otherwise
+     */
+    public int getCost (int cell) {
+        return grid.cost(cell);
+    }
+
+    /**
+     * Determines whether or not the given cell is a wall.
+     *
+     * @param cell A cell index (row * cols + col) in this maze
+     * @return true if the cell is a wall, false otherwise
+     */
+    public boolean isWall (int cell) {
+        return grid.isWall(cell);
+    }
+
+    /**
+     * Returns the tile code of the given cell; see the constants in {@link MazeGrid}.
+     *
+     * @param cell A cell index (row * cols + col) in this maze
+     * @return The tile code stored at the cell
+     */
+    public byte getTile (int cell) {
+        return grid.tile(cell);
+    }
+
+    /**
+     * Converts the given state into its cell index in this maze.
+     *
+     * @param state A MazeState (col, row) within the bounds of this maze
+     * @return The cell index row * cols + col
+     */
+    public int indexOf (MazeState state) {
+        return grid.index(state.col, state.row);
+    }
+
+    /**
+     * Converts the given cell index into a new MazeState.
+     *
+     * @param cell A cell index (row * cols + col) in this maze
+     * @return A new MazeState (col, row) for the cell
+     */
+    public MazeState stateOf (int cell) {
+        return new MazeState(grid.col(cell), grid.row(cell));
+    }
+
+    /**
+     * @return The packed tile grid of this maze
+     */
+    public MazeGrid getGrid () {
+        return grid;
     }
     
     /**
-     * Calculates the total cost of from a given node.
+     * Calculates the total cost of from a given node by walking its whole parent
+     * chain; SearchTreeNodes already carry this value as their f-value, so this
+     * is only useful for checking them.
      *
      * @param node The current MazeState, the action that *led to* this state / node,
      * and the reference to parent SearchTreeNode in the Search Tree.
+     * @param hasKey Whether the node belongs to the search after the key was found.
      * @return An integer which represents the total cost of going from the
      * intial state to the state of the node or from the key state to the state of the node if the 
      * key has been found.
      */
-    public int getTotalCost(SearchTreeNode node) {
+    public int getTotalCost(SearchTreeNode node, boolean hasKey) {
     	SearchTreeNode current = node;
-    	int cost = getCost(current.state);
+    	int cost = getCost(current.cell);
     	while(current.parent != null) {
-    		cost += getCost(current.parent.state);
+    		cost += getCost(current.parent.cell);
     		current = current.parent;
     	}
-    	cost += estimateDistance(node.state);
+    	cost += estimateDistance(node.cell, hasKey);
     	return cost;
     }   
     
     /**
      * Calculates the estimated distance from the state to the goal state or key state
      * if the key has not yet been found without taking into account mud tile costs.
-     * @param state A MazeState (col, row) representing the current state
+     * @param cell A cell index (row * cols + col) representing the current state
      * from which actions can be taken.
+     * @param hasKey Whether the key has been found, making the goals the target.
      * @return An integer which represents the estimated distance from the initial 
      * state to the goal state or key state if the key has not yet been found.
      */
-    private int estimateDistance(MazeState state) {
+    int estimateDistance(int cell, boolean hasKey) {
+    	int col = grid.col(cell), row = grid.row(cell);
     	int distance = 0;
-    	if(foundKey) {
+    	if(hasKey) {
     		int minDistance = 2147483647;
-    		for (Entry<String, MazeState> x : goals.entrySet()) {
-    			MazeState xMod = x.getValue();
-    			int tempDistance = Math.abs(state.row - xMod.row);
-    			tempDistance += Math.abs(state.col - xMod.col);
+    		for (int goal : goalCells) {
+    			int tempDistance = Math.abs(row - grid.row(goal));
+    			tempDistance += Math.abs(col - grid.col(goal));
     			if(tempDistance < minDistance) {
     				minDistance = tempDistance;
     			}
     		}
     		distance = minDistance;
     	} else {
-    		distance += Math.abs(state.row - KEY_STATE.row);
-        	distance += Math.abs(state.col - KEY_STATE.col);
+    		distance += Math.abs(row - grid.row(keyCell));
+        	distance += Math.abs(col - grid.col(keyCell));
     	}
     	
     	return distance;
     }
     
+    /**
+     * Calculates the Manhattan distance between two cells, a lower bound on the
+     * cost of any path between them.
+     *
+     * @param from A cell index (row * cols + col) in this maze
+     * @param to Another cell index in this maze
+     * @return The number of moves between the cells if there were no walls
+     */
+    int manhattan (int from, int to) {
+        return Math.abs(grid.row(from) - grid.row(to)) + Math.abs(grid.col(from) - grid.col(to));
+    }
+
     /**
      * Determines if the current state is a key or not a key.
      *
@@ -258,46 +428,161 @@ public class MazeProblem {
     public boolean isKey (MazeState state) {
         return state.equals(KEY_STATE);
     }
-    
+
     /**
-     * Getter to see the goal states.
-     * @return A set that has the location of the goal states.
+     * Determines if the given cell is the key.
+     *
+     * @param cell A cell index (row * cols + col) in this maze
+     * @return true if the cell is the key, false otherwise
      */
-    public Map getGoals() {
-    	return goals;
+    public boolean isKey (int cell) {
+        return keyCell >= 0 && cell == keyCell;
     }
-    
+
     /**
-     * Signifies that the key has been found.
+     * @return The cell index of the initial state, or -1 if the maze has none
      */
-    public void findKey() {
-    	foundKey = true;
+    public int getInitialCell () {
+        return initialCell;
     }
-    
+
     /**
-     * Determines if whether or not the key as been found.
-     *
-     * @return true if the key is found and false if it is not.
+     * @return The cell index of the key, or -1 if the maze has none
      */
-    public boolean foundKey() {
-    	return foundKey;
+    public int getKeyCell () {
+        return keyCell;
     }
     
     /**
-     * Adds the given state to a set which contains the traversed states.
+     * @return The Manhattan distance Heuristic of this maze, used by every search
+     * whose {@link SolveOptions} name no other
+     */
+    public Heuristic getHeuristic () {
+        return manhattan;
+    }
+
+    /**
+     * [Mutator] Replaces the tile of the given cell for a {@link DynamicMaze}.
+     * Precomputed heuristics, such as {@link DistanceFields}, may overestimate once
+     * a wall or mud tile is removed, and must be rebuilt before further solves.
      *
-     * @param state A MazeState (col, row) representing the current state
-     * from which actions can be taken.
+     * @param cell A cell index (row * cols + col) holding a wall, open or mud tile
+     * @param tile MazeGrid.WALL, OPEN or MUD
      */
-    public void addToGraveyard(MazeState state) {
-    	graveyard.add(state);
+    void setTile (int cell, byte tile) {
+        grid.set(cell, tile);
     }
     
     /**
-     * Empties the graveyard set.
+     * Getter to see the goal states.
+     * @return A set that has the location of the goal states.
      */
-    public void clearGraveyard() {
-    	graveyard.clear();
+    public Map getGoals() {
+    	return Collections.unmodifiableMap(goals);
+    }
+
+    /**
+     * @return A new array of the cell index of every goal tile, in row-major order
+     * for mazes parsed from text, for seeding multi-source searches
+     */
+    public int[] getGoalCells () {
+        return goalCells.clone();
+    }
+
+    /**
+     * @return The number of goal tiles in this maze
+     */
+    public int getGoalCount () {
+        return goalCells.length;
+    }
+
+
+    // Parallel Scan
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Packs a band of rows into the grid and finds the special tiles among them,
+     * splitting bands larger than BAND_CELLS in two and scanning the halves in
+     * parallel. Every task writes its own rows, so the grid needs no locking.
+     */
+    @SuppressWarnings("serial")
+    private static final class Scan extends RecursiveAction {
+
+        static final int BAND_CELLS = 1 << 16;
+        private final String[] maze;
+        private final MazeGrid grid;
+        private final int from, to;
+        int initial = -1, key = -1, goalCount;
+        int[] goals = new int[4];
+
+        Scan (String[] maze, MazeGrid grid, int from, int to) {
+            this.maze = maze;
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute () {
+            if (to - from > 1 && (long) (to - from) * grid.cols > BAND_CELLS) {
+                int middle = (from + to) >>> 1;
+                Scan upper = new Scan(maze, grid, from, middle), lower = new Scan(maze, grid, middle, to);
+                invokeAll(upper, lower);
+                merge(upper);
+                merge(lower);
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                String line = maze[row];
+                if (line.length() != grid.cols) {
+                    throw new IllegalArgumentException("Maze formatted invalidly: row " + row + " has "
+                        + line.length() + " tiles, expected " + grid.cols);
+                }
+                for (int col = 0; col < grid.cols; col++) {
+                    int cell = grid.index(col, row);
+                    byte tile = MazeGrid.requireTile(line.charAt(col), row + 1, col + 1);
+                    switch (tile) {
+                    case MazeGrid.INITIAL: setInitial(cell); break;
+                    case MazeGrid.KEY:     key = cell; break;
+                    case MazeGrid.GOAL:    addGoal(cell); break;
+                    default:               break;
+                    }
+                    grid.set(cell, tile);
+                }
+            }
+        }
+
+        /**
+         * Takes in the finds of a band below every row scanned by this one so far;
+         * as in a single pass, the last key wins. The original t10 test maze holds
+         * two keys, so a second one cannot be rejected like a second 'I'.
+         */
+        private void merge (Scan band) {
+            if (band.initial >= 0) {
+                setInitial(band.initial);
+            }
+            if (band.key >= 0) {
+                key = band.key;
+            }
+            for (int i = 0; i < band.goalCount; i++) {
+                addGoal(band.goals[i]);
+            }
+        }
+
+        private void setInitial (int cell) {
+            if (initial >= 0) {
+                throw new IllegalArgumentException("Maze formatted invalidly: more than one initial state");
+            }
+            initial = cell;
+        }
+
+        private void addGoal (int cell) {
+            if (goalCount == goals.length) {
+                goals = Arrays.copyOf(goals, goalCount * 2);
+            }
+            goals[goalCount++] = cell;
+        }
+
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package pathfinder.informed;
+
+/**
+ * One pathfinding query against a MazeProblem: find the cheapest path that starts
+ * at the initial cell, passes through the key cell, and ends at the goal cell.
+ * The goal may be ANY_GOAL, in which case the path may end at any 'G' tile, as in
+ * the MazeProblem's own puzzle.
+ */
+public class MazeQuery {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final int ANY_GOAL = -1;
+    public final int initial, key, goal;
+
+    /**
+     * Constructs a new MazeQuery between the given cell indices.
+     *
+     * @param initial Cell index (row * cols + col) the path starts from
+     * @param key Cell index the path must pass through
+     * @param goal Cell index the path ends at, or ANY_GOAL for the nearest 'G' tile
+     */
+    public MazeQuery (int initial, int key, int goal) {
+        this.initial = initial;
+        this.key = key;
+        this.goal = goal;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @param problem A MazeProblem
+     * @return The query of the problem's own puzzle: from its initial state, through
+     * its key, to any of its goals
+     */
+    public static MazeQuery of (MazeProblem problem) {
+        return new MazeQuery(problem.getInitialCell(), problem.getKeyCell(), ANY_GOAL);
+    }
+
+    /**
+     * @param problem The MazeProblem whose grid the states index into
+     * @param initial MazeState (col, row) the path starts from
+     * @param key MazeState the path must pass through
+     * @param goal MazeState the path ends at
+     * @return The MazeQuery between the cells of the given states
+     */
+    public static MazeQuery of (MazeProblem problem, MazeState initial, MazeState key, MazeState goal) {
+        return new MazeQuery(problem.indexOf(initial), problem.indexOf(key), problem.indexOf(goal));
+    }
+
+    @Override
+    public String toString () {
+        return "[" + initial + " -> " + key + " -> " + (goal == ANY_GOAL ? "G" : goal) + "]";
+    }
+
+}
@@ -1,11 +1,10 @@
 package pathfinder.informed;
 
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.ArrayList;
 
 /**
- * Maze Pathfinding algorithm that implements a basic, uninformed, breadth-first
- * tree search.
+ * Maze Pathfinding algorithm that implements an informed, A* graph search, first
+ * from the initial state to the key and then from the key to the nearest goal.
  */
 public class Pathfinder {
 
@@ -19,142 +18,268 @@ public class Pathfinder {
 	 *         initial to the goal state, of the format: ["R", "R", "L", ...]
 	 */
 	public static ArrayList<String> solve(MazeProblem problem) {
-		// TODO: Initialize frontier -- what data structure should you use here for
-		// breadth-first search? Recall: The frontier holds SearchTreeNodes!
-		if (problem.foundKey()) {
-			return null;
-		}
-		PriorityQueue<SearchTreeNode> frontier = new PriorityQueue<>(
-				(SearchTreeNode s1, SearchTreeNode s2) -> s1.cost(problem) - s2.cost(problem));
-
-		// TODO: Add new SearchTreeNode representing the problem's initial state to the
-		// frontier. Since this is the initial state, the node's action and parent will
-		// be null
-		SearchTreeNode initialState = new SearchTreeNode(problem.INITIAL_STATE, null, null);
-		frontier.add(initialState);
-		ArrayList<String> path = new ArrayList<String>();
-		SearchTreeNode current = initialState;
-		// TODO: Loop: as long as the frontier is not empty...
-		while (frontier.size() != 0) {
-			// TODO: Get the next node to expand by the ordering of breadth-first search
-			Map<String, MazeState> transitions = problem.getTransitions(frontier.peek().state); // throws an error right
-																								// when key is found
-
-			for (Entry<String, MazeState> x : transitions.entrySet()) {
-				MazeState xMod = x.getValue();
-				SearchTreeNode xNode = new SearchTreeNode(x.getValue(), x.getKey(), current);
-				if (problem.isKey(xMod) && !problem.foundKey()) {
-					path = xNode.getPath();
-					problem.findKey();
-					frontier.clear();
-					problem.clearGraveyard();
-					xNode.parent = null;
-					xNode.action = null;
-					frontier.add(xNode);
-					frontier.add(xNode);
-					break;
-				}
-				if (problem.isGoal(xMod) && problem.foundKey()) {
-					if (path.isEmpty()) {
-						return xNode.getPath();
-					}
-					path.addAll(xNode.getPath());
-					return path;
-					// return xMod and path to get there
-					// call helper method which holds the strings of the actions, set current to
-					// parent
-					// until you hit the root
-				}
-				if (!problem.isKey(xMod)) {
-					problem.addToGraveyard(current.state);
-				}
-				frontier.add(xNode);
-				// make a new treeNode and add it to the frontier and it consists of value, key,
-				// current
-			}
-			
-			frontier.poll();
-
-			//System.out.println(frontier.size());
-			// System.out.println(frontier.peek().state.toString());
-			current = frontier.peek();
-			// pop the head of the LinkedList
-			// set current = new head of LinkedList
-		}
+		return solve(problem, new IndexedHeap(problem.getGrid().size()));
+	}
 
-		// TODO: If that node's state is the goal (see problem's isGoal method),
-		// you're done! Return the solution
-		// [Hint] Use a helper method to collect the solution from the current node!
+	/**
+	 * Solves the given MazeProblem using the given open list, which lets callers
+	 * choose between an {@link IndexedHeap} of any fan-out and a {@link BucketQueue};
+	 * see {@link #solve(MazeProblem)}.
+	 *
+	 * @param problem  A MazeProblem that specifies the maze, actions, transitions.
+	 * @param frontier An empty Frontier sized to the problem's grid.
+	 * @return An ArrayList of Strings representing actions that lead from the
+	 *         initial to the goal state, or null if there is no solution.
+	 */
+	public static ArrayList<String> solve(MazeProblem problem, Frontier frontier) {
+		MazePath path = findPath(problem, frontier);
+		return (path == null) ? null : path.toList();
+	}
 
-		// TODO: Otherwise, must generate children to keep searching. So, use the
-		// problem's getTransitions method from the currently expanded node's state...
+	/**
+	 * Solves the given MazeProblem like {@link #solve(MazeProblem)}, but returns
+	 * the solution in its compact form.
+	 *
+	 * @param problem A MazeProblem that specifies the maze, actions, transitions.
+	 * @return A MazePath that leads from the initial to a goal state, or null if
+	 *         there is no solution.
+	 */
+	public static MazePath findPath(MazeProblem problem) {
+		return findPath(problem, new IndexedHeap(problem.getGrid().size()));
+	}
 
-		// TODO: ...and *for each* of those transition states...
-		// [Hint] Look up how to iterate through <key, value> pairs in a Map -- an
-		// example of this is already done in the MazeProblem's getTransitions method
+	/**
+	 * Solves the given MazeProblem like {@link #solve(MazeProblem, Frontier)}, but
+	 * returns the solution in its compact form.
+	 *
+	 * @param problem  A MazeProblem that specifies the maze, actions, transitions.
+	 * @param frontier An empty Frontier sized to the problem's grid.
+	 * @return A MazePath that leads from the initial to a goal state, or null if
+	 *         there is no solution.
+	 */
+	public static MazePath findPath(MazeProblem problem, Frontier frontier) {
+		return findPath(problem, new SearchContext(problem.getGrid().size(), frontier));
+	}
 
-		// TODO: ...add a new SearchTreeNode to the frontier with the appropriate
-		// action, state, and parent
+	/**
+	 * Solves the given MazeProblem using the scratch state in the given context.
+	 * The problem itself is never modified, so it may be solved by many threads at
+	 * once, as long as each one uses its own SearchContext.
+	 *
+	 * @param problem A MazeProblem that specifies the maze, actions, transitions.
+	 * @param context A SearchContext with room for the problem's grid.
+	 * @return A MazePath that leads from the initial to a goal state, or null if
+	 *         there is no solution.
+	 */
+	public static MazePath findPath(MazeProblem problem, SearchContext context) {
+		return solve(problem, MazeQuery.of(problem), context).path;
+	}
 
-		// Should never get here, but just return null to make the compiler happy
-		return null;
+	/**
+	 * Finds the cheapest path for the given query: from its initial cell to its key,
+	 * and then from the key to its goal. Like {@link #findPath(MazeProblem, SearchContext)},
+	 * the problem is never modified.
+	 *
+	 * @param problem A MazeProblem that specifies the maze, actions, transitions.
+	 * @param query   The MazeQuery to solve within the problem's maze.
+	 * @param context A SearchContext with room for the problem's grid.
+	 * @return A SolveResult with the path and its cost, or an unsolved result if
+	 *         there is no solution.
+	 * @throws IllegalArgumentException If the context is too small for the maze, or
+	 *         a cell of the query lies outside of the maze or on a wall.
+	 */
+	public static SolveResult solve(MazeProblem problem, MazeQuery query, SearchContext context) {
+		return solve(problem, query, context, SolveOptions.NONE);
 	}
 
-	// Helper that starts at goal and goes up the tree to root which holds moves
+	/**
+	 * Solves the given query as in {@link #solve(MazeProblem, MazeQuery, SearchContext)},
+	 * stopping early if a limit of the given options is reached. A stopped solve
+	 * returns a partial result, marked with the limit, whose path runs from the
+	 * initial cell (through the key, if the key leg finished) to the expanded cell
+	 * that the heuristic estimated closest to the stopped leg's target.
+	 *
+	 * @param problem A MazeProblem that specifies the maze, actions, transitions.
+	 * @param query   The MazeQuery to solve within the problem's maze.
+	 * @param context A SearchContext with room for the problem's grid.
+	 * @param options The SolveOptions that limit the solve.
+	 * @return A SolveResult with the path and its cost, a partial result if a limit
+	 *         was reached, or an unsolved result if there is no solution.
+	 * @throws IllegalArgumentException If the context is too small for the maze, or
+	 *         a cell of the query lies outside of the maze or on a wall.
+	 */
+	public static SolveResult solve(MazeProblem problem, MazeQuery query, SearchContext context,
+			SolveOptions options) {
+		return solve(problem, query, context, options, Pathfinder::search, Pathfinder::search);
+	}
 
-}
+	/**
+	 * Solves the given query as in
+	 * {@link #solve(MazeProblem, MazeQuery, SearchContext, SolveOptions)}, running its
+	 * initial-to-key leg with keyLeg and its key-to-goal leg with goalLeg.
+	 */
+	static SolveResult solve(MazeProblem problem, MazeQuery query, SearchContext context,
+			SolveOptions options, LegSearch keyLeg, LegSearch goalLeg) {
+		if (context.capacity() < problem.getGrid().size()) {
+			throw new IllegalArgumentException("SearchContext too small for maze");
+		}
+		// No key or no goal means there is no solution, and no distance for the
+		// heuristic to estimate
+		if (query.key < 0 || (query.goal == MazeQuery.ANY_GOAL && problem.getGoalCount() == 0)) {
+			return new SolveResult(null, -1);
+		}
+		checkCell(problem, query.initial);
+		checkCell(problem, query.key);
+		if (query.goal != MazeQuery.ANY_GOAL) {
+			checkCell(problem, query.goal);
+		}
 
-/**
- * SearchTreeNode that is used in the Search algorithm to construct the Search
- * tree.
- */
-class SearchTreeNode {
+		context.limit(options);
+		try {
+			SearchStats.Leg[] legs = new SearchStats.Leg[2];
+			SearchTreeNode key = runLeg(keyLeg, problem, context, query.initial, query.key, legs, 0);
+			if (key == null) {
+				return stopped(problem, context, null, new SearchStats(legs[0], null));
+			}
+			// The key leg restarts from the key with a fresh tree and graveyard
+			SearchTreeNode goal = runLeg(goalLeg, problem, context, key.cell, query.goal, legs, 1);
+			SearchStats stats = new SearchStats(legs[0], legs[1]);
+			if (goal == null) {
+				return stopped(problem, context, key, stats);
+			}
+			MazeGrid grid = problem.getGrid();
+			return new SolveResult(key.getPath(grid).append(goal.getPath(grid)), key.g + goal.g, stats);
+		} finally {
+			// Searches outside of a solve, and the next solve, run unlimited
+			context.limit(SolveOptions.NONE);
+		}
+	}
 
-	MazeState state;
-	String action;
-	SearchTreeNode parent;
+	/**
+	 * @return The result of a leg that returned null: the partial result of a
+	 *         stopped solve, following the finished key leg, if any, to the best
+	 *         node of the stopped one; or an unsolved result if the leg's target
+	 *         is unreachable.
+	 */
+	private static SolveResult stopped(MazeProblem problem, SearchContext context, SearchTreeNode key,
+			SearchStats stats) {
+		if (context.stopped == null) {
+			return new SolveResult(null, -1, stats);
+		}
+		MazeGrid grid = problem.getGrid();
+		MazePath path = (key == null) ? new MazePath(new byte[0]) : key.getPath(grid);
+		int cost = (key == null) ? 0 : key.g;
+		if (context.partial != null) {
+			path = path.append(context.partial.getPath(grid));
+			cost += context.partial.g;
+		}
+		return new SolveResult(path, cost, stats, context.stopped);
+	}
 
 	/**
-	 * Constructs a new SearchTreeNode to be used in the Search Tree.
-	 *
-	 * @param state  The MazeState (col, row) that this node represents.
-	 * @param action The action that *led to* this state / node.
-	 * @param parent Reference to parent SearchTreeNode in the Search Tree.
+	 * Runs one leg with the given search, storing its measurements in legs[index]
+	 * and passing them on to the context's listener, if any.
 	 */
-	SearchTreeNode(MazeState state, String action, SearchTreeNode parent) {
-		this.state = state;
-		this.action = action;
-		this.parent = parent;
+	private static SearchTreeNode runLeg(LegSearch leg, MazeProblem problem, SearchContext context,
+			int start, int target, SearchStats.Leg[] legs, int index) {
+		long expansions = context.expansions, pushes = context.pushes, reopens = context.reopens;
+		context.frontierPeak = 0;
+		context.partial = null;
+		long begin = System.nanoTime();
+		SearchTreeNode node = leg.search(problem, context, start, target);
+		legs[index] = new SearchStats.Leg(start, target, context.expansions - expansions,
+				context.pushes - pushes, context.reopens - reopens, context.frontierPeak,
+				System.nanoTime() - begin);
+		if (context.getListener() != null) {
+			context.getListener().legFinished(legs[index]);
+		}
+		return node;
 	}
+
 	/**
-     * Creates an ArrayList of Strings that represents the path taken to get
-	 * to the state of the node.
-     *
-     * @return An ArrayList of Strings representing actions that lead from the
-	 * initial to the state of the node, of the format: ["R", "R", "L", ...]
-     */
-	public ArrayList<String> getPath() {
-		ArrayList<String> path = new ArrayList<String>();
-		path.add(this.action);
-		SearchTreeNode p;
-		p = this.parent;
-		while (p.parent != null) {
-			path.add(0, p.action);
-			p = p.parent;
+	 * One leg of a two-leg solve: a search from a start cell to a target cell, or to
+	 * the nearest goal tile for MazeQuery.ANY_GOAL, that returns the target's
+	 * SearchTreeNode or null if it is unreachable.
+	 */
+	interface LegSearch {
+		SearchTreeNode search(MazeProblem problem, SearchContext context, int start, int target);
+	}
+
+	/**
+	 * @throws IllegalArgumentException If the cell is outside of the maze or a wall
+	 */
+	static void checkCell(MazeProblem problem, int cell) {
+		if (cell < 0 || cell >= problem.getGrid().size() || problem.isWall(cell)) {
+			throw new IllegalArgumentException("Query cell " + cell + " is not an open tile");
 		}
-		return path;
 	}
+
 	/**
-     * Calculates the total cost from the initial state to the state of the node
-     * then estimates the remaining distance to the goal state or key state.
-     *
-     * @param problem A MazeProblem that specifies the maze, actions, transitions
-     * @return an integer estimating the total cost of getting from the initial
-	 * to goal state or key state.
-     */
-	public int cost(MazeProblem problem) {
-		int cost = problem.getTotalCost(this);
-		return cost;
+	 * Runs one A* leg from the given start cell to the given target cell, or to the
+	 * nearest goal tile.
+	 *
+	 * @param problem A MazeProblem that specifies the maze, actions, transitions.
+	 * @param context The SearchContext holding the leg's scratch state.
+	 * @param start   The cell index the leg begins from.
+	 * @param target  The cell index the leg ends at, or MazeQuery.ANY_GOAL.
+	 * @return The SearchTreeNode of the leg's target, or null if it is unreachable.
+	 */
+	static SearchTreeNode search(MazeProblem problem, SearchContext context,
+			int start, int target) {
+		Frontier frontier = context.frontier;
+		ClosedSet graveyard = context.graveyard;
+		int[] cells = context.cells;
+		byte[] actions = context.actions;
+		boolean anyGoal = (target == MazeQuery.ANY_GOAL);
+		Heuristic heuristic = context.heuristic(problem);
+		context.reset();
+		int h = heuristic.estimate(start, target);
+		if (h == Heuristic.UNREACHABLE) {
+			return null;
+		}
+		SearchTreeNode root = new SearchTreeNode(start, (byte) -1, null, 0, h);
+		context.putNode(root);
+		frontier.push(start, root.f);
+		context.pushes++;
+
+		while (!frontier.isEmpty()) {
+			SearchTreeNode current = context.getNode(frontier.pop());
+			if (anyGoal ? problem.isGoal(current.cell) : current.cell == target) {
+				return current;
+			}
+			if (context.expand(current)) {
+				return null;
+			}
+			graveyard.add(current.cell);
+
+			int count = problem.getTransitions(current.cell, cells, actions);
+			for (int i = 0; i < count; i++) {
+				int cell = cells[i];
+				if (graveyard.contains(cell)) {
+					continue;
+				}
+				int g = current.g + problem.getCost(cell);
+				SearchTreeNode node = context.getNode(cell);
+				if (node == null) {
+					h = heuristic.estimate(cell, target);
+					// Cells that cannot reach the target are never queued
+					if (h == Heuristic.UNREACHABLE) {
+						continue;
+					}
+					node = new SearchTreeNode(cell, actions[i], current, g, h);
+					context.putNode(node);
+					context.pushes++;
+				} else if (node.reroute(actions[i], current, g)) {
+					context.reopens++;
+				} else {
+					continue;
+				}
+				// Either pushes the new cell or decreases the key of its one entry
+				frontier.push(cell, node.f);
+			}
+			context.sampleFrontier(frontier.size());
+		}
+		return null;
 	}
 
 }
@@ -2,8 +2,20 @@ package pathfinder.informed;
 
 import static org.junit.Assert.*;
 import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for Maze Pathfinder. Tests include completeness and
@@ -11,15 +23,128 @@ import java.util.Arrays;
  */
 public class PathfinderTests {
 
+    // Mazes of the t0-t12 tests, which the other solvers are checked against too
+    // -----------------------------------------------------------------------------
+    private static final String[] T0 = {
+        "XXXXXXX",
+        "XI...KX",
+        "X.....X",
+        "X.X.XGX",
+        "XXXXXXX"
+    };
+
+    private static final String[] T1 = {
+        "XXXXXXX",
+        "XI....X",
+        "X.MMM.X",
+        "X.XKXGX",
+        "XXXXXXX"
+    };
+
+    private static final String[] T2 = {
+        "XXXXXXX",
+        "XI.G..X",
+        "X.MMMGX",
+        "X.XKX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T3 = {
+        "XXXXXXX",
+        "XI.G..X",
+        "X.MXMGX",
+        "X.XKX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T4 = {
+        "XXXXXXX",
+        "X..G..X",
+        "X.MIMGX",
+        "X.XKX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T5 = {
+        "XXXXXXX",
+        "X..G..X",
+        "X.XXXXX",
+        "X.XI.XX",
+        "X.X..XX",
+        "X....XX",
+        "X.....X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T6 = {
+        "XXXXXXX",
+        "XI....X",
+        "X.MXMXX",
+        "X.XGX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T7 = {
+        "XXXXXXX",
+        "XI....X",
+        "X.MXMKX",
+        "X.XGX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T8 = {
+        "XXXXXXX",
+        "X..G..X",
+        "X.XXXXX",
+        "X.XIKXX",
+        "X.X..XX",
+        "X.X..XX",
+        "X....XX",
+        "XXXXXXX"
+    };
+
+    private static final String[] T9 = {
+        "XXXXXXX",
+        "XI....X",
+        "X.MXMKX",
+        "X.XXX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T10 = {
+        "XXXXXXX",
+        "XI..K.X",
+        "X.MXMKX",
+        "X.XXX.X",
+        "XXXXXXX"
+    };
+
+    private static final String[] T11 = {
+        "XXXXXXX",
+        "XG....X",
+        "X.....X",
+        "X.....X",
+        "X.M...X",
+        "X.....X",
+        "XIKMMGX",
+        "XXXXXXX"
+    };
+
+    private static final String[] T12 = {
+        "XXXXXXX",
+        "XGMMKIX",
+        "X.....X",
+        "X.....X",
+        "X.M...X",
+        "X.G...X",
+        "X..MM.X",
+        "XXXXXXX"
+    };
+
+
     @Test
     public void testPathfinder_t0() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI...KX",
-            "X.....X",
-            "X.X.XGX",
-            "XXXXXXX"
-        };
+        String[] maze = T0;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -33,13 +158,7 @@ public class PathfinderTests {
 
     @Test
     public void testPathfinder_t1() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI....X",
-            "X.MMM.X",
-            "X.XKXGX",
-            "XXXXXXX"
-        };
+        String[] maze = T1;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -50,13 +169,7 @@ public class PathfinderTests {
 
     @Test
     public void testPathfinder_t2() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI.G..X",
-            "X.MMMGX",
-            "X.XKX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T2;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -67,13 +180,7 @@ public class PathfinderTests {
 
     @Test
     public void testPathfinder_t3() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI.G..X",
-            "X.MXMGX",
-            "X.XKX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T3;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -82,13 +189,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t4() {
-        String[] maze = {
-            "XXXXXXX",
-            "X..G..X",
-            "X.MIMGX",
-            "X.XKX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T4;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -99,16 +200,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t5() {
-        String[] maze = {
-            "XXXXXXX",
-            "X..G..X",
-            "X.XXXXX",
-            "X.XI.XX",
-            "X.X..XX",
-            "X....XX",
-            "X.....X",
-            "XXXXXXX"
-        };
+        String[] maze = T5;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -117,13 +209,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t6() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI....X",
-            "X.MXMXX",
-            "X.XGX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T6;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -132,13 +218,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t7() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI....X",
-            "X.MXMKX",
-            "X.XGX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T7;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -147,16 +227,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t8() {
-        String[] maze = {
-            "XXXXXXX",
-            "X..G..X",
-            "X.XXXXX",
-            "X.XIKXX",
-            "X.X..XX",
-            "X.X..XX",
-            "X....XX",
-            "XXXXXXX"
-        };
+        String[] maze = T8;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
         
@@ -167,13 +238,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t9() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI....X",
-            "X.MXMKX",
-            "X.XXX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T9;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -182,13 +247,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t10() {
-        String[] maze = {
-            "XXXXXXX",
-            "XI..K.X",
-            "X.MXMKX",
-            "X.XXX.X",
-            "XXXXXXX"
-        };
+        String[] maze = T10;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
 
@@ -198,16 +257,7 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t11() {
-        String[] maze = {
-            "XXXXXXX",
-            "XG....X",
-            "X.....X",
-            "X.....X",
-            "X.M...X",
-            "X.....X",
-            "XIKMMGX",
-            "XXXXXXX"
-        };
+        String[] maze = T11;
         MazeProblem prob = new MazeProblem(maze);
         ArrayList<String> solution = Pathfinder.solve(prob);
         System.out.println(Arrays.toString(solution.toArray()));
@@ -219,6 +269,73 @@ public class PathfinderTests {
     
     @Test
     public void testPathfinder_t12() {
+        String[] maze = T12;
+        MazeProblem prob = new MazeProblem(maze);
+        ArrayList<String> solution = Pathfinder.solve(prob);
+        System.out.println(Arrays.toString(solution.toArray()));
+        
+        int[] result = prob.testSolution(solution);
+        assertEquals(1, result[0]);  // Test that result is a solution
+        assertEquals(6, result[1]); // Ensure that the solution is optimal
+    }
+
+    @Test
+    public void testMazeGrid_cellIndex() {
+        String[] maze = {
+            "XXXXXXX",
+            "XI.M.KX",
+            "X.....X",
+            "X.X.XGX",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        int key = prob.indexOf(prob.KEY_STATE);
+
+        assertEquals(2 * 7 + 4, prob.indexOf(new MazeState(4, 2)));
+        assertEquals(prob.KEY_STATE, prob.stateOf(key));
+        assertEquals(MazeGrid.KEY, prob.getTile(key));
+        assertEquals(3, prob.getCost(prob.indexOf(new MazeState(3, 1))));
+        assertEquals(1, prob.getCost(key));
+        assertTrue(prob.isWall(prob.indexOf(new MazeState(2, 3))));
+    }
+
+    @Test
+    public void testIndexedHeap_decreaseKey() {
+        IndexedHeap heap = new IndexedHeap(8, 3);
+        heap.push(5, 10);
+        heap.push(2, 7);
+        heap.push(6, 12);
+        heap.push(1, 9);
+        heap.push(6, 3);  // decrease-key
+        heap.push(2, 11); // larger key is ignored
+
+        assertEquals(4, heap.size());
+        assertEquals(6, heap.pop());
+        assertEquals(2, heap.pop());
+        assertEquals(1, heap.pop());
+        assertEquals(5, heap.pop());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testPathfinder_binaryHeap() {
+        String[] maze = {
+            "XXXXXXX",
+            "XI....X",
+            "X.MMM.X",
+            "X.XKXGX",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        ArrayList<String> solution = Pathfinder.solve(prob, new IndexedHeap(prob.getGrid().size(), 2));
+
+        int[] result = prob.testSolution(solution);
+        assertEquals(1, result[0]);
+        assertEquals(14, result[1]);
+    }
+
+    @Test
+    public void testPathfinder_bucketQueue() {
         String[] maze = {
             "XXXXXXX",
             "XGMMKIX",
@@ -230,13 +347,800 @@ public class PathfinderTests {
             "XXXXXXX"
         };
         MazeProblem prob = new MazeProblem(maze);
-        ArrayList<String> solution = Pathfinder.solve(prob);
-        System.out.println(Arrays.toString(solution.toArray()));
-        
+        ArrayList<String> solution = Pathfinder.solve(prob, new BucketQueue(prob.getGrid().size()));
+
         int[] result = prob.testSolution(solution);
-        assertEquals(1, result[0]);  // Test that result is a solution
-        assertEquals(6, result[1]); // Ensure that the solution is optimal
+        assertEquals(1, result[0]);
+        assertEquals(6, result[1]);
+    }
+
+    @Test
+    public void testGetTransitions_buffers() {
+        String[] maze = {
+            "XXXXXXX",
+            "XI....X",
+            "X.MXMKX",
+            "X.XGX.X",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        int[] cells = new int[4];
+        byte[] actions = new byte[4];
+        int count = prob.getTransitions(prob.indexOf(new MazeState(2, 1)), cells, actions);
+
+        assertEquals(3, count);
+        assertEquals(prob.indexOf(new MazeState(2, 2)), cells[0]);
+        assertEquals(MazeProblem.DOWN, actions[0]);
+        assertEquals(prob.indexOf(new MazeState(1, 1)), cells[1]);
+        assertEquals(MazeProblem.LEFT, actions[1]);
+        assertEquals(prob.indexOf(new MazeState(3, 1)), cells[2]);
+        assertEquals(MazeProblem.RIGHT, actions[2]);
+    }
+
+    @Test
+    public void testMazePath_compact() {
+        String[] maze = {
+            "XXXXXXX",
+            "XI...KX",
+            "X.....X",
+            "X.X.XGX",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        MazePath solution = Pathfinder.findPath(prob);
+
+        assertEquals(6, solution.length());
+        assertArrayEquals(new int[] {1, 6}, prob.testSolution(solution));
+        assertEquals(solution.toList(), MazePath.of(solution.toList()).toList());
+        assertArrayEquals(new int[] {0, -1}, prob.testSolution(MazePath.of(Arrays.asList("U"))));
+    }
+
+    @Test
+    public void testClosedSet_clear() {
+        MazeState a = new MazeState(2, 3), b = new MazeState(3, 2);
+        assertFalse(a.hashCode() == b.hashCode());
+
+        ClosedSet graveyard = new ClosedSet(200);
+        graveyard.add(8);
+        graveyard.add(130);
+        assertTrue(graveyard.contains(8));
+        assertTrue(graveyard.contains(130));
+        assertFalse(graveyard.contains(72));
+
+        graveyard.clear();
+        assertFalse(graveyard.contains(8));
+        assertFalse(graveyard.contains(130));
+        graveyard.add(72);
+        assertTrue(graveyard.contains(72));
+        assertFalse(graveyard.contains(8));
+    }
+
+    @Test
+    public void testPathfinder_reentrant() throws InterruptedException {
+        String[] maze = {
+            "XXXXXXX",
+            "XI....X",
+            "X.MMM.X",
+            "X.XKXGX",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        assertEquals(14, prob.testSolution(Pathfinder.solve(prob))[1]);
+        assertEquals(14, prob.testSolution(Pathfinder.solve(prob))[1]);
+
+        int[] costs = new int[8];
+        Thread[] threads = new Thread[costs.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                SearchContext context = new SearchContext(prob);
+                for (int i = 0; i < 100; i++) {
+                    costs[id] += prob.testSolution(Pathfinder.findPath(prob, context))[1];
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int cost : costs) {
+            assertEquals(1400, cost);
+        }
+    }
+
+    @Test
+    public void testBatchSolver_inputOrder() {
+        String[] maze = {
+            "XXXXXXX",
+            "XI.G..X",
+            "X.MXMGX",
+            "X.XKX.X",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        List<MazeQuery> queries = new ArrayList<>();
+        queries.add(MazeQuery.of(prob, new MazeState(1, 1), new MazeState(5, 1), new MazeState(1, 3)));
+        queries.add(MazeQuery.of(prob, new MazeState(1, 3), new MazeState(2, 2), new MazeState(5, 3)));
+        queries.add(MazeQuery.of(prob, new MazeState(1, 1), new MazeState(3, 3), new MazeState(5, 3)));
+        queries.add(MazeQuery.of(prob));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<SolveResult> results = new BatchSolver(prob, executor, 2).solve(queries);
+        executor.shutdown();
+
+        int[] costs = {10, 10, -1, -1};
+        for (int i = 0; i < costs.length; i++) {
+            SolveResult result = results.get(i);
+            assertEquals(costs[i], result.cost);
+            if (result.isSolved()) {
+                assertArrayEquals(new int[] {1, costs[i]}, prob.testSolution(result.path, queries.get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncSolver_boundedContexts() throws Exception {
+        String[] maze = {
+            "XXXXXXX",
+            "XG....X",
+            "X.....X",
+            "X.....X",
+            "X.M...X",
+            "X.....X",
+            "XIKMMGX",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        List<MazeQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            queries.add(MazeQuery.of(prob));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            // Eight threads share two contexts, created only as they are needed
+            ContextPool pool = new ContextPool(prob.getGrid().size(), 2);
+            try (AsyncSolver solver = new AsyncSolver(prob, executor, pool, 64)) {
+                for (SolveResult result : solver.solveAll(queries).get()) {
+                    assertEquals(6, result.cost);
+                }
+            }
+            assertTrue(pool.created() <= 2);
+
+            // While every context is borrowed queries wait for one, and solve
+            // waits too once the in-flight limit is reached
+            SearchContext first = pool.acquire(), second = pool.acquire();
+            assertNull(pool.tryAcquire(10, TimeUnit.MILLISECONDS));
+            try (AsyncSolver solver = new AsyncSolver(prob, executor, pool, 2)) {
+                List<CompletableFuture<SolveResult>> futures = new ArrayList<>();
+                futures.add(solver.solve(MazeQuery.of(prob)));
+                futures.add(solver.solve(MazeQuery.of(prob)));
+                Future<CompletableFuture<SolveResult>> third = executor.submit(() -> solver.solve(MazeQuery.of(prob)));
+                Thread.sleep(100);
+                assertFalse(futures.get(0).isDone() || futures.get(1).isDone() || third.isDone());
+                pool.release(first);
+                pool.release(second);
+                futures.add(third.get(5, TimeUnit.SECONDS));
+                for (CompletableFuture<SolveResult> future : futures) {
+                    assertEquals(6, future.get(5, TimeUnit.SECONDS).cost);
+                }
+            }
+            assertEquals(2, pool.created());
+        } finally {
+            // Interrupts any query still parked on the pool if an assertion failed
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testJumpPointSearch_mudBoundaries() {
+        String[] maze = {
+            "XXXXXXXXX",
+            "XI......X",
+            "X.MMMMM.X",
+            "X.M...M.X",
+            "X.M.K.M.X",
+            "X.MMMMM.X",
+            "X......GX",
+            "XXXXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        MazePath solution = JumpPointSearch.findPath(prob);
+        int[] result = prob.testSolution(solution);
+        assertEquals(1, result[0]);
+        assertEquals(prob.testSolution(Pathfinder.solve(prob))[1], result[1]);
+    }
+
+    @Test
+    public void testJumpPointSearch_openMap() {
+        String[] maze = new String[64];
+        char[] row = new char[64];
+        for (int r = 0; r < maze.length; r++) {
+            Arrays.fill(row, (r == 0 || r == maze.length - 1) ? 'X' : '.');
+            row[0] = row[row.length - 1] = 'X';
+            if (r == 1) { row[1] = 'I'; row[62] = 'G'; }
+            if (r == 62) { row[62] = 'K'; }
+            maze[r] = new String(row);
+        }
+        MazeProblem prob = new MazeProblem(maze);
+        SearchContext astar = new SearchContext(prob), jps = new SearchContext(prob);
+        SolveResult expected = Pathfinder.solve(prob, MazeQuery.of(prob), astar);
+        SolveResult actual = JumpPointSearch.solve(prob, MazeQuery.of(prob), jps);
+        assertEquals(expected.cost, actual.cost);
+        assertArrayEquals(new int[] {1, actual.cost}, prob.testSolution(actual.path));
+        assertTrue(jps.getExpansions() * 100 < astar.getExpansions());
+    }
+
+    @Test
+    public void testJumpPointSearch_testMazes() {
+        String[][] mazes = {T0, T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12};
+        for (int t = 0; t < mazes.length; t++) {
+            MazeProblem prob = new MazeProblem(mazes[t]);
+            SolveResult expected = Pathfinder.solve(prob, MazeQuery.of(prob), new SearchContext(prob));
+            SolveResult actual = JumpPointSearch.solve(prob, MazeQuery.of(prob), new SearchContext(prob));
+            assertEquals("t" + t, expected.cost, actual.cost);
+            if (actual.isSolved()) {
+                assertArrayEquals(new int[] {1, actual.cost}, prob.testSolution(actual.path));
+            }
+        }
+    }
+
+    @Test
+    public void testJumpPointSearch_bucketQueue() {
+        MazeProblem prob = new MazeProblem(T1);
+        SearchContext buckets = new SearchContext(prob.getGrid().size(), new BucketQueue(prob.getGrid().size()));
+        try {
+            JumpPointSearch.solve(prob, MazeQuery.of(prob), buckets);
+            fail("Jumps overflow the bucket window");
+        } catch (IllegalArgumentException e) {}
+        assertEquals(0, buckets.getExpansions());
+    }
+
+    @Test
+    public void testBidirectionalSearch_manyGoals() {
+        String[] maze = {
+            "XXXXXXXXXXX",
+            "XG..M...XGX",
+            "X.XXXXX.X.X",
+            "X...M.X...X",
+            "XXX.X.XMXMX",
+            "XI..XK..M.X",
+            "X.XXXXXXX.X",
+            "XG...MM...X",
+            "XXXXXXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        SearchContext context = new SearchContext(prob);
+        for (int cell = 0; cell < prob.getGrid().size(); cell++) {
+            if (prob.isWall(cell)) { continue; }
+            MazeQuery query = new MazeQuery(cell, cell, MazeQuery.ANY_GOAL);
+            SolveResult expected = Pathfinder.solve(prob, query, new SearchContext(prob));
+            SolveResult actual = BidirectionalSearch.solve(prob, query, context);
+            assertEquals(expected.cost, actual.cost);
+        }
+        int[] result = prob.testSolution(BidirectionalSearch.findPath(prob));
+        assertEquals(1, result[0]);
+        assertEquals(prob.testSolution(Pathfinder.solve(prob))[1], result[1]);
+    }
+
+    @Test
+    public void testDistanceFields_exact() {
+        String[] maze = {
+            "XXXXXXXXX",
+            "XI.M..XGX",
+            "X.XXM.XXX",
+            "X..MK.M.X",
+            "XMX.XXX.X",
+            "X...M.XGX",
+            "XXXXXXX.X",
+            "XG.....XX",
+            "XXXXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        DistanceFields fields = new DistanceFields(prob);
+        int key = prob.getKeyCell();
+        for (int cell = 0; cell < prob.getGrid().size(); cell++) {
+            if (prob.isWall(cell)) { continue; }
+            int toGoal = Pathfinder.solve(prob, new MazeQuery(cell, cell, MazeQuery.ANY_GOAL), new SearchContext(prob)).cost;
+            int toKey = Pathfinder.solve(prob, new MazeQuery(cell, key, key), new SearchContext(prob)).cost;
+            assertEquals(toGoal, fields.toGoal(cell) == Heuristic.UNREACHABLE ? -1 : fields.toGoal(cell));
+            assertEquals(toKey, fields.toKey(cell) == Heuristic.UNREACHABLE ? -1 : fields.toKey(cell));
+        }
+        SearchContext context = new SearchContext(prob);
+        SolveResult plain = Pathfinder.solve(prob, MazeQuery.of(prob), context);
+        SolveResult guided = Pathfinder.solve(prob, MazeQuery.of(prob), context, SolveOptions.NONE.withHeuristic(fields));
+        assertEquals(plain.cost, guided.cost);
+        assertArrayEquals(new int[] {1, guided.cost}, prob.testSolution(guided.path));
+        assertTrue(guided.stats.getExpansions() < plain.stats.getExpansions());
+        // The fields guide only the solve given them, not the next one on the context
+        assertEquals(plain.stats.getExpansions(), Pathfinder.solve(prob, MazeQuery.of(prob), context).stats.getExpansions());
+    }
+
+    @Test
+    public void testLandmarks_saveAndLoad() throws Exception {
+        String[] maze = {
+            "XXXXXXXXXX",
+            "XI.M...X.X",
+            "X.XXX.MX.X",
+            "X..M..X..X",
+            "XX.XM.X.MX",
+            "X..K.....X",
+            "X.MXXXX.GX",
+            "XXXXXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        Landmarks built = Landmarks.select(prob, 3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        built.write(bytes);
+        Landmarks landmarks = Landmarks.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(3, landmarks.count());
+        for (int i = 0; i < landmarks.count(); i++) {
+            assertEquals(built.cell(i), landmarks.cell(i));
+        }
+        SolveOptions alt = SolveOptions.NONE.withHeuristic(landmarks.heuristic(prob));
+        SearchContext context = new SearchContext(prob);
+        for (int from = 0; from < prob.getGrid().size(); from++) {
+            for (int to = 0; to < prob.getGrid().size(); to++) {
+                if (prob.isWall(from) || prob.isWall(to)) { continue; }
+                MazeQuery query = new MazeQuery(from, from, to);
+                assertEquals(Pathfinder.solve(prob, query, context).cost,
+                    Pathfinder.solve(prob, query, context, alt).cost);
+            }
+        }
+        maze[2] = "X.XXX..X.X";
+        try {
+            landmarks.heuristic(new MazeProblem(maze));
+            fail("Landmarks bound to a different map");
+        } catch (IllegalArgumentException e) {}
+    }
+
+
+    @Test
+    public void testHierarchicalMap_refinement() {
+        String[] maze = {
+            "XXXXXXXXXXXX",
+            "XI.M...X...X",
+            "X.XXX.MX.X.X",
+            "X..M..X..X.X",
+            "XX.XM.X.MX.X",
+            "X..K.......X",
+            "X.MXXXX.XX.X",
+            "X....M..X.GX",
+            "XXXXXXXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        HierarchicalMap map = new HierarchicalMap(prob, 3);
+        SolveResult optimal = Pathfinder.solve(prob, MazeQuery.of(prob), new SearchContext(prob));
+        SolveResult fast = map.solve(MazeQuery.of(prob), new SearchContext(prob), HierarchicalMap.Refinement.FAST);
+        SolveResult exact = map.solve(MazeQuery.of(prob), new SearchContext(prob), HierarchicalMap.Refinement.EXACT);
+        assertArrayEquals(new int[] {1, fast.cost}, prob.testSolution(fast.path));
+        assertArrayEquals(new int[] {1, exact.cost}, prob.testSolution(exact.path));
+        assertTrue(optimal.cost <= exact.cost && exact.cost <= fast.cost);
+        for (long seed = 0; seed < 50; seed++) {
+            MazeProblem random = new MazeProblem(MazeGenerator.mudField(24, 0.3, 0.3, seed));
+            SolveResult cheapest = Pathfinder.solve(random, MazeQuery.of(random), new SearchContext(random));
+            HierarchicalMap randomMap = new HierarchicalMap(random, 2 + (int) (seed % 5));
+            fast = randomMap.solve(MazeQuery.of(random), new SearchContext(random), HierarchicalMap.Refinement.FAST);
+            exact = randomMap.solve(MazeQuery.of(random), new SearchContext(random), HierarchicalMap.Refinement.EXACT);
+            assertEquals(cheapest.isSolved(), exact.isSolved());
+            assertTrue(cheapest.cost <= exact.cost && exact.cost <= fast.cost);
+        }
+
+        // Walling off the corridor to the goal rebuilds only its cluster
+        maze[6] = "X.MXXXX.XXXX";
+        maze[7] = "X....M..XXGX";
+        MazeProblem walled = new MazeProblem(maze);
+        map.update(walled, walled.getGrid().index(10, 6));
+        map.update(walled, walled.getGrid().index(9, 7));
+        assertEquals(new HierarchicalMap(walled, 3).nodeCount(), map.nodeCount());
+        assertFalse(map.solve(MazeQuery.of(walled), new SearchContext(walled), HierarchicalMap.Refinement.FAST).isSolved());
+    }
+
+
+    @Test
+    public void testIncrementalPlanner_repairsAfterChanges() {
+        String[] maze = {
+            "XXXXXXXXXX",
+            "XI.M...X.X",
+            "X.XXX.MX.X",
+            "X..M..X..X",
+            "XX.XM.X.MX",
+            "X..K.....X",
+            "X.MXXXX.GX",
+            "XXXXXXXXXX"
+        };
+        DynamicMaze dynamic = new DynamicMaze(maze);
+        MazeProblem prob = dynamic.getProblem();
+        MazeGrid grid = prob.getGrid();
+        try (IncrementalPlanner planner = dynamic.plan(MazeQuery.of(prob))) {
+            assertEquals(prob.testSolution(Pathfinder.solve(new MazeProblem(maze)))[1], planner.replan().cost);
+
+            // Block the key's way east and open a detour, then take the agent to the key
+            dynamic.setTile(grid.index(5, 5), MazeGrid.WALL);
+            dynamic.setTile(grid.index(6, 4), MazeGrid.MUD);
+            SolveResult rerouted = planner.replan();
+            assertEquals(Pathfinder.solve(prob, MazeQuery.of(prob), new SearchContext(prob)).cost, rerouted.cost);
+            assertArrayEquals(new int[] {1, rerouted.cost}, prob.testSolution(rerouted.path));
+            planner.moveTo(prob.getKeyCell());
+            assertTrue(planner.hasKey());
+            MazeQuery fromKey = new MazeQuery(prob.getKeyCell(), prob.getKeyCell(), MazeQuery.ANY_GOAL);
+            assertEquals(Pathfinder.solve(prob, fromKey, new SearchContext(prob)).cost, planner.replan().cost);
+
+            dynamic.setTile(grid.index(6, 4), MazeGrid.WALL);
+            assertFalse(planner.replan().isSolved());
+        }
+        try {
+            dynamic.setTile(prob.getKeyCell(), MazeGrid.WALL);
+            fail("The key's tile cannot change");
+        } catch (IllegalArgumentException e) {}
+    }
+
+
+    @Test
+    public void testMazeFile_convertAndLoad() throws Exception {
+        String[] maze = {
+            "XXXXXXXXXX",
+            "XI.M...X.X",
+            "X.XXX.MX.X",
+            "X..M..X..X",
+            "XX.XM.X.MX",
+            "XG.K.....X",
+            "X.MXXXX.GX",
+            "XXXXXXXXXX"
+        };
+        Path text = Files.createTempFile("maze", ".txt"), file = Files.createTempFile("maze", ".bin");
+        try {
+            Files.write(text, Arrays.asList(maze));
+            MazeFile.convert(text, file);
+            MazeProblem expected = new MazeProblem(maze), loaded = MazeFile.load(file);
+            assertEquals(expected.getInitialCell(), loaded.getInitialCell());
+            assertEquals(expected.getKeyCell(), loaded.getKeyCell());
+            assertEquals(expected.getGoals(), loaded.getGoals());
+            for (int cell = 0; cell < expected.getGrid().size(); cell++) {
+                assertEquals(expected.getTile(cell), loaded.getTile(cell));
+            }
+            assertEquals(Pathfinder.solve(expected).toString(), Pathfinder.solve(loaded).toString());
+
+            MazeFile.save(loaded, text);
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(text));
+            Files.write(text, Arrays.copyOf(Files.readAllBytes(file), 40));
+            try {
+                MazeFile.load(text);
+                fail("Truncated maze file");
+            } catch (IOException e) {}
+        } finally {
+            Files.delete(text);
+            Files.delete(file);
+        }
+    }
+
+
+    @Test
+    public void testMazeParser_streaming() throws Exception {
+        String[] maze = {
+            "XXXXXXX",
+            "XI.M.KX",
+            "X.XXX.X",
+            "XG..M.X",
+            "XXXXXXX"
+        };
+        MazeProblem expected = new MazeProblem(maze);
+        MazeProblem parsed = MazeParser.parse(new ByteArrayInputStream(String.join("\r\n", maze).getBytes("US-ASCII")));
+        assertEquals(expected.getGrid().rows, parsed.getGrid().rows);
+        assertEquals(expected.getGrid().cols, parsed.getGrid().cols);
+        for (int cell = 0; cell < expected.getGrid().size(); cell++) {
+            assertEquals(expected.getTile(cell), parsed.getTile(cell));
+        }
+        assertEquals(expected.getGoals(), parsed.getGoals());
+        assertEquals(Pathfinder.solve(expected).toString(), Pathfinder.solve(parsed).toString());
+
+        // Like the constructor, the parser takes the last of several keys
+        String[] twoKeys = {"XXXXX", "XIK.X", "X.K.X", "XG..X", "XXXXX"};
+        parsed = MazeParser.parse(new ByteArrayInputStream(String.join("\n", twoKeys).getBytes("US-ASCII")));
+        assertEquals(new MazeProblem(twoKeys).getKeyCell(), parsed.getKeyCell());
+        assertEquals(parsed.getGrid().index(2, 2), parsed.getKeyCell());
+
+        // Files are parsed in place, and streams of more than one block gathered
+        String[] large = MazeGenerator.mudField(1100, 0.2, 0.2, 282);
+        expected = new MazeProblem(large);
+        Path file = Files.createTempFile("maze", ".txt");
+        try {
+            Files.write(file, Arrays.asList(large));
+            MazeProblem[] versions = {MazeParser.parse(file), MazeParser.parse(new ByteArrayInputStream(Files.readAllBytes(file)))};
+            for (MazeProblem version : versions) {
+                assertEquals(expected.getGrid().size(), version.getGrid().size());
+                for (int cell = 0; cell < expected.getGrid().size(); cell++) {
+                    assertEquals(expected.getTile(cell), version.getTile(cell));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        // Empty lines at the end are ignored, but not before another row
+        String[] trailing = {"XXX\nXGX\nXXX\n\n", "XXX\r\nXGX\r\nXXX\r\n\r\n", "XXX\nXGX\nXXX\n\n\n"};
+        for (String text : trailing) {
+            parsed = MazeParser.parse(new ByteArrayInputStream(text.getBytes("US-ASCII")));
+            assertEquals(3, parsed.getGrid().rows);
+            assertEquals(3, parsed.getGrid().cols);
+        }
+        String[][] invalid = {
+            {"XXX\nXQX\nXXX\n", "line 2, column 2"},
+            {"XXX\nXX\nXXX\n", "line 2, column 3"},
+            {"XXX\n\n\nXXX\n", "line 2, column 1"},
+            {"XXX\nXXXX\n", "line 2, column 4"},
+            {"XIX\nXIX\n", "line 2, column 2"}
+        };
+        for (String[] text : invalid) {
+            try {
+                MazeParser.parse(new ByteArrayInputStream(text[0].getBytes("US-ASCII")));
+                fail("Parsed an invalid maze");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(text[1]));
+            }
+        }
+
+        // Every reader of the text format reports an illegal tile the same way
+        String[] illegal = {"XXX", "XQX", "XXX"};
+        String message = "Maze formatted invalidly at line 2, column 2: illegal tile 'Q'";
+        Path text = Files.createTempFile("maze", ".txt"), converted = Files.createTempFile("maze", ".bin");
+        try {
+            Files.write(text, Arrays.asList(illegal));
+            try {
+                new MazeProblem(illegal);
+                fail("Constructed an invalid maze");
+            } catch (IllegalArgumentException e) {
+                assertEquals(message, e.getMessage());
+            }
+            try {
+                MazeParser.parse(text);
+                fail("Parsed an invalid maze");
+            } catch (IllegalArgumentException e) {
+                assertEquals(message, e.getMessage());
+            }
+            try {
+                MazeFile.convert(text, converted);
+                fail("Converted an invalid maze");
+            } catch (IllegalArgumentException e) {
+                assertEquals(message, e.getMessage());
+            }
+        } finally {
+            Files.delete(text);
+            Files.delete(converted);
+        }
+    }
+
+
+    @Test
+    public void testMazeProblem_parallelConstruction() {
+        String[] maze = MazeGenerator.scatterGoals(MazeGenerator.mudField(600, 0.2, 0.2, 282), 32, 282);
+        MazeProblem parallel = new MazeProblem(maze);
+        assertEquals(32, parallel.getGoals().size());
+        for (int cell = 0; cell < parallel.getGrid().size(); cell++) {
+            char c = maze[parallel.getGrid().row(cell)].charAt(parallel.getGrid().col(cell));
+            assertEquals(MazeGrid.tileOf(c), parallel.getTile(cell));
+            assertEquals(c == 'G', parallel.isGoal(parallel.stateOf(cell)));
+        }
+        assertEquals(maze[1].indexOf('I') + maze[0].length(), parallel.getInitialCell());
+
+        // A key in a later band replaces one in an earlier band
+        String[] twoKeys = maze.clone();
+        twoKeys[1] = maze[1].replaceFirst("\\.", "K");
+        assertEquals(parallel.getKeyCell(), new MazeProblem(twoKeys).getKeyCell());
+
+        maze[maze.length - 2] = maze[maze.length - 2].replaceFirst("\\.", "I");
+        String[][] invalid = {maze, {"XXX", "XX", "XXX"}, {"XIX", "XQX"}};
+        for (String[] bad : invalid) {
+            try {
+                new MazeProblem(bad);
+                fail("Constructed an invalid maze");
+            } catch (IllegalArgumentException e) {}
+        }
+    }
+
+
+    @Test
+    public void testMazeProblem_goalCells() {
+        String[] maze = {
+            "XXXXXXX",
+            "XIG.MGX",
+            "X.XXX.X",
+            "XG.KM.X",
+            "XXXXXXX"
+        };
+        MazeProblem prob = new MazeProblem(maze);
+        MazeGrid grid = prob.getGrid();
+        assertArrayEquals(new int[] {grid.index(2, 1), grid.index(5, 1), grid.index(1, 3)}, prob.getGoalCells());
+        assertEquals(3, prob.getGoalCount());
+        prob.getGoalCells()[0] = 0;
+        assertEquals(grid.index(2, 1), prob.getGoalCells()[0]);
+        assertTrue(prob.isGoal(new MazeState(5, 1)));
+        assertFalse(prob.isGoal(new MazeState(4, 1)));
+        assertFalse(prob.isGoal(new MazeState(-1, 1)));
+        assertFalse(prob.isGoal(new MazeState(7, 1)));
+    }
+
+
+    @Test
+    public void testMazeGenerator_stylesAndOutcomes() throws Exception {
+        Path file = Files.createTempFile("maze", ".txt");
+        try {
+            for (MazeGenerator.Style style : MazeGenerator.Style.values()) {
+                for (long seed = 0; seed < 20; seed++) {
+                    MazeGenerator generator = new MazeGenerator(style, 41 + (int) seed, 53, seed);
+                    generator.setGoals(3);
+                    generator.setMud(0.2);
+                    String[] maze = generator.generate();
+                    assertArrayEquals(maze, generator.generate());
+                    MazeProblem prob = new MazeProblem(maze);
+                    assertEquals(41 + seed, prob.getGrid().rows);
+                    assertEquals(3, prob.getGoalCount());
+                    assertTrue(style + " " + seed, Pathfinder.solve(prob) != null);
+
+                    generator.setOutcome(MazeGenerator.Outcome.UNSOLVABLE);
+                    generator.write(file);
+                    try (InputStream in = Files.newInputStream(file)) {
+                        assertNull(style + " " + seed, Pathfinder.solve(MazeParser.parse(in)));
+                    }
+                    assertEquals(Arrays.asList(generator.generate()), Files.readAllLines(file));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+        try {
+            new MazeGenerator(MazeGenerator.Style.CAVES, 8, 100, 282);
+            fail("Generated a maze that is too small");
+        } catch (IllegalArgumentException e) {}
+    }
+
+
+    @Test
+    public void testSearchStats_legsAndListener() {
+        MazeProblem prob = new MazeProblem(MazeGenerator.mudField(60, 0.2, 0.3, 282));
+        SearchContext context = new SearchContext(prob);
+        int[] expanded = new int[1];
+        List<SearchStats.Leg> finished = new ArrayList<>();
+        context.setListener(new SearchListener() {
+            @Override
+            public void expanded (int cell, int g) {
+                expanded[0]++;
+            }
+
+            @Override
+            public void legFinished (SearchStats.Leg leg) {
+                finished.add(leg);
+            }
+        });
+        SolveResult result = Pathfinder.solve(prob, MazeQuery.of(prob), context);
+        assertTrue(result.isSolved());
+        SearchStats stats = result.stats;
+        assertEquals(context.getExpansions(), stats.getExpansions());
+        assertEquals(expanded[0], stats.getExpansions());
+        assertEquals(Arrays.asList(stats.keyLeg, stats.goalLeg), finished);
+        assertEquals(prob.getInitialCell(), stats.keyLeg.start);
+        assertEquals(prob.getKeyCell(), stats.keyLeg.target);
+        assertEquals(MazeQuery.ANY_GOAL, stats.goalLeg.target);
+        for (SearchStats.Leg leg : finished) {
+            assertTrue(leg.pushes > leg.expansions && leg.expansions > 0);
+            assertTrue(leg.frontierPeak > 0 && leg.frontierPeak <= leg.pushes);
+            assertTrue(leg.reopens >= 0 && leg.nanos > 0);
+        }
+
+        // An unreachable key ends the solve after its leg
+        context.setListener(null);
+        MazeProblem sealed = new MazeProblem(MazeGenerator.sealKey(MazeGenerator.mudField(60, 0.2, 0.3, 282)));
+        stats = Pathfinder.solve(sealed, MazeQuery.of(sealed), context).stats;
+        assertNull(stats.goalLeg);
+        assertTrue(stats.keyLeg.expansions > 0);
+        assertEquals(2, finished.size());
+    }
+
+
+    @Test
+    public void testSolveOptions_limitsAndPartialPaths() {
+        MazeProblem sealed = new MazeProblem(MazeGenerator.sealKey(MazeGenerator.mudField(200, 0.2, 0.3, 282)));
+        MazeQuery query = MazeQuery.of(sealed);
+        SearchContext context = new SearchContext(sealed);
+
+        SolveResult result = Pathfinder.solve(sealed, query, context, SolveOptions.NONE.withExpansionBudget(500));
+        assertEquals(SolveOptions.Limit.EXPANSIONS, result.limit);
+        assertFalse(result.isSolved());
+        assertEquals(500, result.stats.getExpansions());
+        MazeState end = walk(sealed, result);
+        assertTrue(sealed.manhattan(sealed.indexOf(end), query.key) < sealed.manhattan(query.initial, query.key));
+
+        result = Pathfinder.solve(sealed, query, context, SolveOptions.NONE.withTimeout(0, TimeUnit.SECONDS));
+        assertEquals(SolveOptions.Limit.DEADLINE, result.limit);
+        assertTrue(result.stats.getExpansions() <= 256);
+        walk(sealed, result);
+
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        result = Pathfinder.solve(sealed, query, context, SolveOptions.NONE.withCancellation(token));
+        assertEquals(SolveOptions.Limit.CANCELLED, result.limit);
+        Thread.currentThread().interrupt();
+        result = Pathfinder.solve(sealed, query, context, SolveOptions.NONE.withInterrupts(true));
+        assertTrue(Thread.interrupted());
+        assertEquals(SolveOptions.Limit.CANCELLED, result.limit);
+
+        // Without limits the context searches everything again
+        result = Pathfinder.solve(sealed, query, context);
+        assertNull(result.path);
+        assertNull(result.limit);
+
+        // A solve stopped in its goal leg passes through the key
+        MazeProblem prob = new MazeProblem(MazeGenerator.mudField(200, 0.2, 0.3, 282));
+        query = MazeQuery.of(prob);
+        SolveResult full = Pathfinder.solve(prob, query, context);
+        long budget = full.stats.keyLeg.expansions + 10;
+        result = Pathfinder.solve(prob, query, context, SolveOptions.NONE.withExpansionBudget(budget));
+        assertEquals(SolveOptions.Limit.EXPANSIONS, result.limit);
+        assertEquals(10, result.stats.goalLeg.expansions);
+        walk(prob, result);
+        MazePath keyPath = Pathfinder.search(prob, new SearchContext(prob), query.initial, query.key).getPath(prob.getGrid());
+        assertTrue(result.path.length() > keyPath.length());
+        assertEquals(keyPath.toList(), result.path.toList().subList(0, keyPath.length()));
+        assertEquals(full.toString(), Pathfinder.solve(prob, query, context, SolveOptions.NONE.withExpansionBudget(1 << 20)).toString());
+    }
+
+    @Test
+    public void testAnytimeSearch_boundsAndOptimality() {
+        MazeProblem prob = new MazeProblem(MazeGenerator.scatterGoals(MazeGenerator.mudField(150, 0.15, 0.3, 282), 8, 282));
+        MazeQuery query = MazeQuery.of(prob);
+        SearchContext context = new SearchContext(prob);
+        SolveResult optimal = Pathfinder.solve(prob, query, new SearchContext(prob));
+
+        List<AnytimeResult> published = new ArrayList<>();
+        AnytimeResult result = new AnytimeSearch().solve(prob, query, context, SolveOptions.NONE, published::add);
+        assertFalse(published.isEmpty());
+        assertEquals(AnytimeSearch.DEFAULT_WEIGHT, published.get(0).weight, 0);
+        for (int i = 0; i < published.size(); i++) {
+            AnytimeResult step = published.get(i);
+            walk(prob, step);
+            assertTrue(step.bound >= 1);
+            assertTrue(step.cost <= step.bound * optimal.cost + 1e-9);
+            if (i > 0) {
+                assertTrue(step.cost <= published.get(i - 1).cost);
+                assertTrue(step.bound <= published.get(i - 1).bound);
+            }
+        }
+        assertEquals(published.get(published.size() - 1).toString(), result.toString());
+        assertTrue(result.isOptimal());
+        assertEquals(optimal.cost, result.cost);
+
+        // A limit keeps the best path found so far, or the best partial path
+        long first = published.get(0).stats.getExpansions();
+        result = new AnytimeSearch().solve(prob, query, context, SolveOptions.NONE.withExpansionBudget(first + 10), null);
+        assertTrue(result.isSolved());
+        assertEquals(published.get(0).cost, result.cost);
+        result = new AnytimeSearch().solve(prob, query, context, SolveOptions.NONE.withExpansionBudget(100), null);
+        assertEquals(SolveOptions.Limit.EXPANSIONS, result.limit);
+        assertTrue(result.isPartial());
+        walk(prob, result);
+
+        MazeProblem sealed = new MazeProblem(MazeGenerator.sealKey(MazeGenerator.mudField(100, 0.2, 0.3, 282)));
+        published.clear();
+        result = new AnytimeSearch(2, 1).solve(sealed, MazeQuery.of(sealed), new SearchContext(sealed), SolveOptions.NONE, published::add);
+        assertNull(result.path);
+        assertFalse(result.isSolved());
+        assertTrue(published.isEmpty());
+    }
+
+    /**
+     * Follows the given result's path from the initial state, checking each move
+     * and that the path's cost matches the result's.
+     *
+     * @return The state at the end of the path
+     */
+    private static MazeState walk (MazeProblem prob, SolveResult result) {
+        MazeState state = prob.stateOf(prob.getInitialCell());
+        int cost = 0;
+        for (String action : result.path.toList()) {
+            state = prob.getTransitions(state).get(action);
+            assertNotNull(state);
+            cost += prob.getCost(state);
+        }
+        assertEquals(result.cost, cost);
+        return state;
     }
-    
 
 }
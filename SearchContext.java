@@ -0,0 +1,241 @@
+package pathfinder.informed;
+
+import java.util.Arrays;
+
+/**
+ * Scratch state of one informed search: the frontier, the graveyard of expanded
+ * cells, the best SearchTreeNode found for each cell, and the transition buffers.
+ * Keeping it apart from the immutable MazeProblem lets any number of searches run
+ * against one maze at once, each with its own SearchContext. A context may be
+ * reused for any number of searches, one at a time, over mazes no larger than its
+ * capacity.
+ */
+public class SearchContext {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    final Frontier frontier;
+    final ClosedSet graveyard;
+    final int[] cells = new int[4];
+    final byte[] actions = new byte[4];
+    private final SearchTreeNode[] nodes;
+    private int generation;
+    private SearchContext backward;
+    private SearchListener listener;
+    long expansions, pushes, reopens;
+    int frontierPeak;
+
+    // Limits of the current solve: expansions past checkAt take the slow path,
+    // which always applies while any limit is set
+    private static final int CLOCK_MASK = 255;
+    private SolveOptions options = SolveOptions.NONE;
+    private long checkAt = Long.MAX_VALUE, budgetEnd, deadline;
+    SolveOptions.Limit stopped;
+    SearchTreeNode partial;
+
+    /**
+     * Constructs a new SearchContext with the default frontier, an IndexedHeap.
+     *
+     * @param capacity The largest number of cells of any maze it will search
+     */
+    public SearchContext (int capacity) {
+        this(capacity, new IndexedHeap(capacity));
+    }
+
+    /**
+     * Constructs a new SearchContext that orders its search with the given frontier.
+     *
+     * @param capacity The largest number of cells of any maze it will search
+     * @param frontier An empty Frontier sized to at least capacity cells
+     */
+    public SearchContext (int capacity, Frontier frontier) {
+        this.frontier = frontier;
+        this.graveyard = new ClosedSet(capacity);
+        this.nodes = new SearchTreeNode[capacity];
+    }
+
+    /**
+     * Constructs a new SearchContext sized to the given problem's grid.
+     *
+     * @param problem The MazeProblem to be searched
+     */
+    public SearchContext (MazeProblem problem) {
+        this(problem.getGrid().size());
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return The largest number of cells of any maze this context can search
+     */
+    public int capacity () {
+        return nodes.length;
+    }
+
+    /**
+     * @return The number of nodes expanded by every search run with this context
+     */
+    public long getExpansions () {
+        return expansions;
+    }
+
+    /**
+     * Sets the listener told of the events of every search run with this context.
+     *
+     * @param listener A SearchListener, or null for none
+     */
+    public void setListener (SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return The listener set by {@link #setListener(SearchListener)}, or null
+     */
+    public SearchListener getListener () {
+        return listener;
+    }
+
+    /**
+     * Offers the given node as the end of a partial path from the leg's start,
+     * checks the solve's limits, and unless one has been reached counts the node's
+     * expansion and tells the listener, if any.
+     *
+     * @return Whether a limit of the solve has been reached, in which case the
+     * search must stop without expanding the node and return null
+     */
+    boolean expand (SearchTreeNode node) {
+        if (expansions >= checkAt && limited(node)) {
+            return true;
+        }
+        count(node.cell, node.g);
+        return false;
+    }
+
+    /**
+     * Expands a node as {@link #expand(SearchTreeNode)} does, without offering it
+     * as a partial path, for nodes whose paths do not start at the leg's start,
+     * like those of a backward search.
+     */
+    boolean expand (int cell, int g) {
+        if (expansions >= checkAt && limited(null)) {
+            return true;
+        }
+        count(cell, g);
+        return false;
+    }
+
+    private void count (int cell, int g) {
+        expansions++;
+        if (listener != null) {
+            listener.expanded(cell, g);
+        }
+    }
+
+    /**
+     * [Mutator] Applies the given options to the solve about to start; see
+     * {@link SolveOptions}.
+     */
+    void limit (SolveOptions options) {
+        this.options = options;
+        this.stopped = null;
+        this.partial = null;
+        this.checkAt = options.isLimited() ? 0 : Long.MAX_VALUE;
+        this.budgetEnd = (options.maxExpansions == Long.MAX_VALUE) ? Long.MAX_VALUE
+            : expansions + options.maxExpansions;
+        this.deadline = (options.timeoutNanos == Long.MAX_VALUE) ? 0 : System.nanoTime() + options.timeoutNanos;
+    }
+
+    /**
+     * @return The Heuristic of the current solve: the one its options name, or the
+     * given maze's Manhattan distance
+     */
+    Heuristic heuristic (MazeProblem problem) {
+        return (options.heuristic != null) ? options.heuristic : problem.getHeuristic();
+    }
+
+    /**
+     * Keeps the node with the smallest heuristic estimate, then cost, as the end
+     * of the best partial path, and checks the solve's limits, the clock and
+     * cancellation only every few hundred expansions.
+     *
+     * @return Whether a limit has been reached
+     */
+    private boolean limited (SearchTreeNode node) {
+        if (node != null) {
+            int h = node.f - node.g;
+            if (partial == null || h < partial.f - partial.g || (h == partial.f - partial.g && node.g < partial.g)) {
+                partial = node;
+            }
+        }
+        if (stopped != null) {
+            return true;
+        }
+        if (expansions >= budgetEnd) {
+            stopped = SolveOptions.Limit.EXPANSIONS;
+        } else if ((expansions & CLOCK_MASK) == 0) {
+            if (options.timeoutNanos != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+                stopped = SolveOptions.Limit.DEADLINE;
+            } else if ((options.token != null && options.token.isCancelled())
+                    || (options.interruptible && Thread.currentThread().isInterrupted())) {
+                stopped = SolveOptions.Limit.CANCELLED;
+            }
+        }
+        return stopped != null;
+    }
+
+    /**
+     * Raises the frontier peak of the current leg to the given size, if larger.
+     */
+    void sampleFrontier (int size) {
+        if (size > frontierPeak) {
+            frontierPeak = size;
+        }
+    }
+
+    /**
+     * @return The companion context that holds the backward half of a
+     * bidirectional search, created with the same capacity on first use
+     */
+    SearchContext backward () {
+        if (backward == null) {
+            backward = new SearchContext(capacity());
+        }
+        return backward;
+    }
+
+    /**
+     * [Mutator] Forgets everything about the previous search: empties the frontier
+     * and graveyard, and invalidates every stored SearchTreeNode without a pass
+     * over the node table.
+     */
+    void reset () {
+        frontier.clear();
+        graveyard.clear();
+        if (++generation == 0) {
+            Arrays.fill(nodes, null);
+            generation = 1;
+        }
+    }
+
+    /**
+     * @param cell A cell index
+     * @return The SearchTreeNode stored for the cell in the current search, or null
+     */
+    SearchTreeNode getNode (int cell) {
+        SearchTreeNode node = nodes[cell];
+        return (node != null && node.generation == generation) ? node : null;
+    }
+
+    /**
+     * [Mutator] Stores the given node as the best one for its cell in the current search.
+     *
+     * @param node A SearchTreeNode
+     */
+    void putNode (SearchTreeNode node) {
+        node.generation = generation;
+        nodes[node.cell] = node;
+    }
+
+}
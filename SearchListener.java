@@ -0,0 +1,27 @@
+package pathfinder.informed;
+
+/**
+ * Receives the events of the searches run with a SearchContext, as set by
+ * {@link SearchContext#setListener(SearchListener)}. Events arrive on the thread
+ * running the search, in the middle of it, so a listener should only record them.
+ * A context without a listener pays one null check per expansion.
+ */
+public interface SearchListener {
+
+    /**
+     * Called as a node is expanded.
+     *
+     * @param cell The expanded node's cell index
+     * @param g The cost of the node's path from the root of its search tree, which
+     * for the backward half of a bidirectional search is the leg's target
+     */
+    default void expanded (int cell, int g) {}
+
+    /**
+     * Called as each leg of a solve ends, whether or not it reached its target.
+     *
+     * @param leg The leg's measurements
+     */
+    default void legFinished (SearchStats.Leg leg) {}
+
+}
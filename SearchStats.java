@@ -0,0 +1,89 @@
+package pathfinder.informed;
+
+/**
+ * Counters and timings of one solve, split between its initial-to-key and
+ * key-to-goal legs, as returned in {@link SolveResult#stats}. Each leg's counts
+ * are those its solver recorded in the SearchContext while the leg ran; solvers
+ * that plan over an abstract graph, like {@link HierarchicalMap}, count each of its
+ * nodes as one expansion.
+ */
+public class SearchStats {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public final Leg keyLeg, goalLeg;
+
+    /**
+     * Measurements of one leg of a solve.
+     */
+    public static class Leg {
+
+        public final int start, target;
+        public final long expansions, pushes, reopens;
+        public final int frontierPeak;
+        public final long nanos;
+
+        /**
+         * Constructs a new Leg.
+         *
+         * @param start The leg's start cell
+         * @param target The leg's target cell, or MazeQuery.ANY_GOAL
+         * @param expansions The number of nodes expanded
+         * @param pushes The number of cells added to the frontier
+         * @param reopens The number of times a cell already in the frontier was
+         * pushed again at a lower cost
+         * @param frontierPeak The largest number of cells held by the frontier
+         * @param nanos The wall-clock time the leg took, in nanoseconds
+         */
+        Leg (int start, int target, long expansions, long pushes, long reopens, int frontierPeak, long nanos) {
+            this.start = start;
+            this.target = target;
+            this.expansions = expansions;
+            this.pushes = pushes;
+            this.reopens = reopens;
+            this.frontierPeak = frontierPeak;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString () {
+            return start + "->" + target + ": " + expansions + " expanded, " + pushes + " pushed, " + reopens
+                + " reopened, peak " + frontierPeak + ", " + nanos / 1000 + " us";
+        }
+    }
+
+    /**
+     * Constructs a new SearchStats.
+     *
+     * @param keyLeg The key leg's measurements, or null if it was not run
+     * @param goalLeg The goal leg's measurements, or null if it was not run
+     */
+    SearchStats (Leg keyLeg, Leg goalLeg) {
+        this.keyLeg = keyLeg;
+        this.goalLeg = goalLeg;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return The number of nodes expanded by both legs
+     */
+    public long getExpansions () {
+        return ((keyLeg == null) ? 0 : keyLeg.expansions) + ((goalLeg == null) ? 0 : goalLeg.expansions);
+    }
+
+    /**
+     * @return The wall-clock time both legs took, in nanoseconds
+     */
+    public long getNanos () {
+        return ((keyLeg == null) ? 0 : keyLeg.nanos) + ((goalLeg == null) ? 0 : goalLeg.nanos);
+    }
+
+    @Override
+    public String toString () {
+        return "key leg " + keyLeg + "; goal leg " + goalLeg;
+    }
+
+}
@@ -0,0 +1,66 @@
+package pathfinder.informed;
+
+/**
+ * SearchTreeNode that is used in the Search algorithm to construct the Search
+ * tree.
+ */
+class SearchTreeNode {
+
+	int cell;
+	byte action;
+	SearchTreeNode parent;
+	int g, f;
+	int generation;
+
+	/**
+	 * Constructs a new SearchTreeNode to be used in the Search Tree. The node's
+	 * path cost is accumulated from its parent, so neither it nor the f-value
+	 * ever has to be recomputed by walking the tree.
+	 *
+	 * @param cell    The cell index (row * cols + col) that this node represents.
+	 * @param action  The action code that *led to* this state / node, or -1 for a root;
+	 *                a node may lie several moves of this action from its parent.
+	 * @param parent  Reference to parent SearchTreeNode in the Search Tree.
+	 * @param g       The cost of the path from the root to this node.
+	 * @param h       The estimated remaining distance from this node to the target.
+	 */
+	SearchTreeNode(int cell, byte action, SearchTreeNode parent, int g, int h) {
+		this.cell = cell;
+		this.action = action;
+		this.parent = parent;
+		this.g = g;
+		this.f = g + h;
+	}
+
+	/**
+	 * Moves this node under the given parent if that gives it a cheaper path
+	 * cost, keeping its heuristic estimate.
+	 *
+	 * @param action The action code that leads from parent to this node's state.
+	 * @param parent The candidate new parent SearchTreeNode.
+	 * @param newG   The cost of the path to this node through parent.
+	 * @return true if the node was moved and its g and f lowered, false otherwise.
+	 */
+	boolean reroute(byte action, SearchTreeNode parent, int newG) {
+		if (newG >= g) {
+			return false;
+		}
+		f += newG - g;
+		g = newG;
+		this.action = action;
+		this.parent = parent;
+		return true;
+	}
+
+	/**
+	 * Collects the actions taken to get from the root of the Search Tree to the
+	 * state of the node, in a single walk up the tree.
+	 *
+	 * @param grid The MazeGrid the tree was searched over.
+	 * @return A MazePath of the actions that lead from the root to this node.
+	 */
+	public MazePath getPath(MazeGrid grid) {
+		return MazePath.of(this, grid);
+	}
+
+}
@@ -0,0 +1,106 @@
+package pathfinder.informed;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on one solve: a budget of node expansions, a timeout, a
+ * CancellationToken, and whether an interrupt of the solving thread stops it. A
+ * solve that reaches a limit stops and returns the best partial path found so far,
+ * marked with the {@link Limit} it reached; see
+ * {@link Pathfinder#solve(MazeProblem, MazeQuery, SearchContext, SolveOptions)}.
+ * The options also name the {@link Heuristic} that guides the solve, the maze's
+ * Manhattan distance unless another is given.
+ * <p>
+ * SolveOptions are immutable, so one instance may limit any number of solves at
+ * once; each with-method returns a copy that differs in one limit. The timeout
+ * starts when each solve does.
+ */
+public class SolveOptions {
+
+    /**
+     * The limit that stopped a solve.
+     */
+    public enum Limit { EXPANSIONS, DEADLINE, CANCELLED }
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public static final SolveOptions NONE = new SolveOptions(Long.MAX_VALUE, Long.MAX_VALUE, null, false, null);
+    public final long maxExpansions, timeoutNanos;
+    public final CancellationToken token;
+    public final boolean interruptible;
+    public final Heuristic heuristic;
+
+    private SolveOptions (long maxExpansions, long timeoutNanos, CancellationToken token, boolean interruptible,
+            Heuristic heuristic) {
+        this.maxExpansions = maxExpansions;
+        this.timeoutNanos = timeoutNanos;
+        this.token = token;
+        this.interruptible = interruptible;
+        this.heuristic = heuristic;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @param maxExpansions The most nodes the solve may expand over both legs
+     * @return A copy of these options with the given expansion budget
+     * @throws IllegalArgumentException If the budget is negative
+     */
+    public SolveOptions withExpansionBudget (long maxExpansions) {
+        if (maxExpansions < 0) {
+            throw new IllegalArgumentException("Expansion budget must not be negative");
+        }
+        return new SolveOptions(maxExpansions, timeoutNanos, token, interruptible, heuristic);
+    }
+
+    /**
+     * @param timeout The longest the solve may run, from when it starts
+     * @param unit The unit of the timeout
+     * @return A copy of these options with the given timeout
+     * @throws IllegalArgumentException If the timeout is negative
+     */
+    public SolveOptions withTimeout (long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        return new SolveOptions(maxExpansions, unit.toNanos(timeout), token, interruptible, heuristic);
+    }
+
+    /**
+     * @param token The CancellationToken that cancels the solve, or null for none
+     * @return A copy of these options with the given token
+     */
+    public SolveOptions withCancellation (CancellationToken token) {
+        return new SolveOptions(maxExpansions, timeoutNanos, token, interruptible, heuristic);
+    }
+
+    /**
+     * @param interruptible Whether an interrupt of the solving thread cancels the
+     * solve; the thread's interrupt status is left set
+     * @return A copy of these options with the given interrupt policy
+     */
+    public SolveOptions withInterrupts (boolean interruptible) {
+        return new SolveOptions(maxExpansions, timeoutNanos, token, interruptible, heuristic);
+    }
+
+    /**
+     * @param heuristic A consistent Heuristic for the solved maze, such as
+     * {@link DistanceFields} or one bound from {@link Landmarks}, or null for the
+     * maze's Manhattan distance
+     * @return A copy of these options with the given heuristic
+     */
+    public SolveOptions withHeuristic (Heuristic heuristic) {
+        return new SolveOptions(maxExpansions, timeoutNanos, token, interruptible, heuristic);
+    }
+
+    /**
+     * @return Whether or not these options limit a solve at all
+     */
+    public boolean isLimited () {
+        return maxExpansions != Long.MAX_VALUE || timeoutNanos != Long.MAX_VALUE || token != null
+            || interruptible;
+    }
+
+}
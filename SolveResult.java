@@ -0,0 +1,79 @@
+package pathfinder.informed;
+
+/**
+ * Outcome of solving one MazeQuery: the path found, if any, its cost under the
+ * same rules as MazeProblem.testSolution, and the search's measurements. A solve
+ * stopped by a limit of its {@link SolveOptions} returns a partial result, whose
+ * path ends short of a goal and whose limit says why.
+ */
+public class SolveResult {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    public final MazePath path;
+    public final int cost;
+    public final SearchStats stats;
+    public final SolveOptions.Limit limit;
+
+    /**
+     * Constructs a new SolveResult without measurements.
+     *
+     * @param path The path found, or null if the query has no solution
+     * @param cost The cost of the path, or -1 if there is none
+     */
+    SolveResult (MazePath path, int cost) {
+        this(path, cost, null);
+    }
+
+    /**
+     * Constructs a new SolveResult.
+     *
+     * @param path The path found, or null if the query has no solution
+     * @param cost The cost of the path, or -1 if there is none
+     * @param stats The search's measurements, or null if it kept none
+     */
+    SolveResult (MazePath path, int cost, SearchStats stats) {
+        this(path, cost, stats, null);
+    }
+
+    /**
+     * Constructs a new SolveResult, partial if a limit is given.
+     *
+     * @param path The path found, partial if limit is not null, or null if the
+     * query has no solution
+     * @param cost The cost of the path, or -1 if there is none
+     * @param stats The search's measurements, or null if it kept none
+     * @param limit The limit that stopped the solve, or null if it finished
+     */
+    SolveResult (MazePath path, int cost, SearchStats stats, SolveOptions.Limit limit) {
+        this.path = path;
+        this.cost = cost;
+        this.stats = stats;
+        this.limit = limit;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * @return Whether or not a path to a goal was found
+     */
+    public boolean isSolved () {
+        return path != null && limit == null;
+    }
+
+    /**
+     * @return Whether or not the solve was stopped by a limit, leaving a partial path
+     */
+    public boolean isPartial () {
+        return limit != null;
+    }
+
+    @Override
+    public String toString () {
+        return isPartial() ? "partial (" + limit + ") " + cost + " " + path
+            : isSolved() ? cost + " " + path : "unsolved";
+    }
+
+}
@@ -0,0 +1,213 @@
+package pathfinder.informed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH microbenchmarks of the solver's hot paths on generated maze families, built
+ * and run from the benchmarks module:
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar
+ * </pre>
+ * The jar's main class is this one, which always attaches JMH's GC profiler, so
+ * every run reports the bytes allocated per operation next to its time. Each
+ * fork gets a 16 GB heap limit for the 10000 x 10000 mazes; pick sizes with, for
+ * example, {@code -p size=100,1000}. The per-cell operations each run over a fixed
+ * sample of cells, so their scores are per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class HotPathBenchmark {
+
+    // Fields
+    // -----------------------------------------------------------------------------
+    static final int SAMPLES = 4096;
+
+    /**
+     * Maze family measured by the benchmarks.
+     */
+    public enum Family {
+        OPEN, SPIRAL, MUD, MANY_GOALS, UNSOLVABLE;
+
+        String[] build (int size) {
+            String[] mixed = MazeGenerator.mudField(size, 0.10, 0.20, 282);
+            switch (this) {
+            case OPEN:       return MazeGenerator.mudField(size, 0.0, 0.0, 282);
+            case SPIRAL:     return MazeGenerator.spiral(size);
+            case MUD:        return MazeGenerator.mudField(size, 0.15, 0.45, 282);
+            case MANY_GOALS: return MazeGenerator.scatterGoals(mixed, size, 282);
+            default:         return MazeGenerator.sealKey(mixed);
+            }
+        }
+    }
+
+    /**
+     * One maze of every family and size, with a sample of its open cells and of
+     * states anywhere in it.
+     */
+    @State(Scope.Benchmark)
+    public static class Maze {
+        @Param({"OPEN", "SPIRAL", "MUD", "MANY_GOALS", "UNSOLVABLE"})
+        Family family;
+
+        @Param({"100", "1000", "10000"})
+        int size;
+
+        MazeProblem problem;
+        MazeQuery query;
+        SearchContext context;
+        final int[] cells = new int[SAMPLES], buffer = new int[4];
+        final MazeState[] states = new MazeState[SAMPLES];
+        final byte[] actions = new byte[4];
+
+        @Setup
+        public void build () {
+            problem = new MazeProblem(family.build(size));
+            query = MazeQuery.of(problem);
+            context = new SearchContext(problem);
+            Random random = new Random(282);
+            MazeGrid grid = problem.getGrid();
+            for (int i = 0; i < SAMPLES; i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(grid.size());
+                } while (problem.isWall(cell));
+                cells[i] = cell;
+                states[i] = problem.stateOf(random.nextInt(grid.size()));
+            }
+        }
+    }
+
+    /**
+     * One maze of every solvable family and size, with its solution and the end
+     * of its key leg, for the operations that check paths.
+     */
+    @State(Scope.Benchmark)
+    public static class Solved {
+        @Param({"OPEN", "SPIRAL", "MUD", "MANY_GOALS"})
+        Family family;
+
+        @Param({"100", "1000", "10000"})
+        int size;
+
+        MazeProblem problem;
+        MazePath path;
+        List<String> actions;
+        SearchTreeNode key;
+
+        @Setup
+        public void build () {
+            problem = new MazeProblem(family.build(size));
+            MazeQuery query = MazeQuery.of(problem);
+            SearchContext context = new SearchContext(problem);
+            path = Pathfinder.solve(problem, query, context).path;
+            actions = path.toList();
+            key = Pathfinder.search(problem, context, query.initial, query.key);
+        }
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    /**
+     * Runs these benchmarks with the GC profiler, taking any other JMH options,
+     * such as {@code -p size=100} or a pattern naming other benchmarks like
+     * {@link SolverBenchmark}, from the command line.
+     */
+    public static void main (String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(HotPathBenchmark.class.getSimpleName());
+        }
+        new Runner(options.build()).run();
+    }
+
+    @Benchmark
+    public SolveResult solve (Maze maze) {
+        return Pathfinder.solve(maze.problem, maze.query, maze.context);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long getTransitionsCell (Maze maze) {
+        long sum = 0;
+        for (int cell : maze.cells) {
+            sum += maze.problem.getTransitions(cell, maze.buffer, maze.actions);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long getTransitionsState (Maze maze) {
+        long sum = 0;
+        for (MazeState state : maze.states) {
+            sum += maze.problem.getTransitions(state).size();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long isGoalCell (Maze maze) {
+        long sum = 0;
+        for (int cell : maze.cells) {
+            sum += maze.problem.isGoal(cell) ? 1 : 0;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long isGoalState (Maze maze) {
+        long sum = 0;
+        for (MazeState state : maze.states) {
+            sum += maze.problem.isGoal(state) ? 1 : 0;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int getTotalCost (Solved solved) {
+        return solved.problem.getTotalCost(solved.key, false);
+    }
+
+    @Benchmark
+    public int[] testSolutionPath (Solved solved) {
+        return solved.problem.testSolution(solved.path);
+    }
+
+    @Benchmark
+    public int[] testSolutionList (Solved solved) {
+        return solved.problem.testSolution(new ArrayList<>(solved.actions));
+    }
+
+}
@@ -0,0 +1,115 @@
+package pathfinder.informed;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH comparison of the solvers on the maze families of {@link HotPathBenchmark},
+ * each solving the maze's own query with one SearchContext:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar SolverBenchmark -p family=MUD
+ * </pre>
+ * The expansions counter reports the nodes one solve expands next to its time.
+ * Whatever a solver precomputes, such as distance fields, landmarks or a cluster
+ * hierarchy, is built once per trial and not timed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SolverBenchmark {
+
+    /**
+     * Solver measured by the benchmark.
+     */
+    public enum Solver {
+        ASTAR, BUCKET_QUEUE, JUMP_POINTS, BIDIRECTIONAL, DISTANCE_FIELDS, LANDMARKS, HIERARCHY_FAST,
+        HIERARCHY_EXACT, ANYTIME
+    }
+
+    /**
+     * One maze of every family and size, with whatever the solver precomputes
+     * for it.
+     */
+    @State(Scope.Benchmark)
+    public static class Maze {
+        @Param({"OPEN", "SPIRAL", "MUD", "MANY_GOALS", "UNSOLVABLE"})
+        HotPathBenchmark.Family family;
+
+        @Param({"100", "1000"})
+        int size;
+
+        @Param({"ASTAR", "BUCKET_QUEUE", "JUMP_POINTS", "BIDIRECTIONAL", "DISTANCE_FIELDS", "LANDMARKS",
+            "HIERARCHY_FAST", "HIERARCHY_EXACT", "ANYTIME"})
+        Solver solver;
+
+        MazeProblem problem;
+        MazeQuery query;
+        SearchContext context;
+        SolveOptions options = SolveOptions.NONE;
+        HierarchicalMap map;
+
+        @Setup
+        public void build () {
+            problem = new MazeProblem(family.build(size));
+            query = MazeQuery.of(problem);
+            int cells = problem.getGrid().size();
+            context = (solver == Solver.BUCKET_QUEUE) ? new SearchContext(cells, new BucketQueue(cells))
+                : new SearchContext(problem);
+            switch (solver) {
+            case DISTANCE_FIELDS: options = options.withHeuristic(new DistanceFields(problem)); break;
+            case LANDMARKS:       options = options.withHeuristic(Landmarks.select(problem).heuristic(problem)); break;
+            case HIERARCHY_FAST:
+            case HIERARCHY_EXACT: map = new HierarchicalMap(problem); break;
+            default:              break;
+            }
+        }
+
+        SolveResult solve () {
+            switch (solver) {
+            case JUMP_POINTS:     return JumpPointSearch.solve(problem, query, context);
+            case BIDIRECTIONAL:   return BidirectionalSearch.solve(problem, query, context);
+            case HIERARCHY_FAST:  return map.solve(query, context, HierarchicalMap.Refinement.FAST);
+            case HIERARCHY_EXACT: return map.solve(query, context, HierarchicalMap.Refinement.EXACT);
+            case ANYTIME:         return new AnytimeSearch().solve(problem, query, context, options, null);
+            default:              return Pathfinder.solve(problem, query, context, options);
+            }
+        }
+    }
+
+    /**
+     * The nodes expanded by the last solve, which is the same for every solve of
+     * one maze.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Expansions {
+        public long expansions;
+    }
+
+
+    // Methods
+    // -----------------------------------------------------------------------------
+
+    @Benchmark
+    public SolveResult solve (Maze maze, Expansions counter) {
+        long before = maze.context.getExpansions();
+        SolveResult result = maze.solve();
+        counter.expansions = maze.context.getExpansions() - before;
+        return result;
+    }
+
+}